@@ -0,0 +1,111 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pw.stamina.causam.api.EventBus;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies that steady-state sequential dispatch does not allocate
+ * <p>
+ * Running this class directly executes the benchmark with the GC profiler and fails if any configuration allocates on
+ * dispatch. It can also be run like every other benchmark, with {@code -prof gc} to see the allocation rate.
+ *
+ * @author Foundry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    /**
+     * The normalised allocation rate tolerated before a dispatch is considered allocating, absorbing the profiler's own
+     * measurement noise
+     */
+    private static final double ALLOCATION_TOLERANCE = 1.0;
+
+    @Param({"DEFAULT", "CACHING", "INDEXED"})
+    public BusConfiguration configuration;
+
+    private EventBus<Object, Events.BenchmarkEvent> bus;
+
+    private Events.BenchmarkEvent event;
+
+    private Events.BenchmarkEvent unheardEvent;
+
+    @Setup
+    public void setUp() {
+        bus = configuration.create();
+        for (int i = 0; i < 10; i++) {
+            bus.register(new Subscriber());
+        }
+        event = Events.create(0);
+        unheardEvent = new Events.BenchmarkEvent() {};
+    }
+
+    @Benchmark
+    public Object dispatch() {
+        return bus.dispatch(event);
+    }
+
+    @Benchmark
+    public Object dispatchWithoutListeners() {
+        return bus.dispatch(unheardEvent);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final OptionsBuilder options = new OptionsBuilder();
+        options.include(AllocationBenchmark.class.getName()).addProfiler(GCProfiler.class);
+        if (!System.getProperty("java.specification.version").startsWith("1.")) {    //see the note in the module pom
+            options.jvmArgsAppend("--add-opens", "java.base/java.lang.invoke=ALL-UNNAMED");
+        }
+
+        for (RunResult run : new Runner(options.build()).run()) {
+            for (Map.Entry<String, Result> secondary : run.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith("gc.alloc.rate.norm") && secondary.getValue().getScore() > ALLOCATION_TOLERANCE) {
+                    throw new IllegalStateException(run.getParams().getBenchmark() + " " + run.getParams().getParam("configuration")
+                            + " allocated " + secondary.getValue().getScore() + " B/op");
+                }
+            }
+        }
+    }
+}
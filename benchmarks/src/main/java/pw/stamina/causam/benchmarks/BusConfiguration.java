@@ -0,0 +1,58 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import pw.stamina.causam.Causam;
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.configuration.Configurations;
+
+/**
+ * The bus configurations compared by the benchmarks
+ *
+ * @author Foundry
+ */
+public enum BusConfiguration {
+    DEFAULT {
+        @Override
+        public EventBus<Object, Events.BenchmarkEvent> create() {
+            return Causam.makeBus(Object.class, Events.BenchmarkEvent.class, Configurations.defaultAnnotated());
+        }
+    },
+    CACHING {
+        @Override
+        public EventBus<Object, Events.BenchmarkEvent> create() {
+            return Causam.makeBus(Object.class, Events.BenchmarkEvent.class, Configurations.cachingAnnotated());
+        }
+    },
+    INDEXED {
+        @Override
+        public EventBus<Object, Events.BenchmarkEvent> create() {
+            return Causam.makeBus(Object.class, Events.BenchmarkEvent.class, Configurations.indexedAnnotated());
+        }
+    },
+    CONCURRENT {
+        @Override
+        public EventBus<Object, Events.BenchmarkEvent> create() {
+            return Causam.makeBus(Object.class, Events.BenchmarkEvent.class, Configurations.concurrentAnnotated());
+        }
+    };
+
+    public abstract EventBus<Object, Events.BenchmarkEvent> create();
+}
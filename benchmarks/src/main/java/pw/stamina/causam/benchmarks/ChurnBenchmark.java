@@ -0,0 +1,86 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pw.stamina.causam.api.EventBus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dispatch throughput while another thread continuously registers and unregisters containers
+ *
+ * @author Foundry
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChurnBenchmark {
+
+    @Param({"10", "50"})
+    public int listenerCount;
+
+    @Param({"DEFAULT", "CACHING", "CONCURRENT"})
+    public BusConfiguration configuration;
+
+    private EventBus<Object, Events.BenchmarkEvent> bus;
+
+    private Events.BenchmarkEvent event;
+
+    @Setup
+    public void setUp() {
+        bus = configuration.create();
+        for (int i = 0; i < listenerCount; i++) {
+            bus.register(new Subscriber());
+        }
+        event = Events.create(0);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public Object dispatch() {
+        return bus.dispatch(event);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean registerAndUnregister() {
+        final Subscriber subscriber = new Subscriber();
+        bus.register(subscriber);
+        return bus.unregister(subscriber);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import pw.stamina.causam.api.EventBus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch hot path against the number of listeners per event type, the number of distinct event types in
+ * the stream and the bus configuration
+ * <p>
+ * Every registered {@link Subscriber} contributes one listener to each event type. The number of dispatching threads of
+ * {@link #dispatch(Cursor)} can be varied with JMH's {@code -t} option; {@link #dispatchContended(Cursor)} always runs
+ * with four threads.
+ *
+ * @author Foundry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int listenerCount;
+
+    @Param({"1", "4", "16"})
+    public int eventTypeCount;
+
+    @Param({"DEFAULT", "CACHING", "INDEXED", "CONCURRENT"})
+    public BusConfiguration configuration;
+
+    private EventBus<Object, Events.BenchmarkEvent> bus;
+
+    private Events.BenchmarkEvent[] events;
+
+    @Setup
+    public void setUp() {
+        bus = configuration.create();
+        for (int i = 0; i < listenerCount; i++) {
+            bus.register(new Subscriber());
+        }
+        events = new Events.BenchmarkEvent[eventTypeCount];
+        for (int i = 0; i < eventTypeCount; i++) {
+            events[i] = Events.create(i);
+        }
+    }
+
+    @Benchmark
+    public Object dispatch(Cursor cursor) {
+        return bus.dispatch(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object dispatchContended(Cursor cursor) {
+        return bus.dispatch(cursor.next(events));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        Events.BenchmarkEvent next(Events.BenchmarkEvent[] events) {
+            final int current = index;
+            index = (current + 1 == events.length ? 0 : current + 1);
+            return events[current];
+        }
+    }
+}
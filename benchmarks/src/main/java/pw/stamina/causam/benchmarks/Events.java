@@ -0,0 +1,104 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+/**
+ * A fixed family of event types, allowing benchmarks to spread dispatch over a configurable number of distinct classes
+ *
+ * @author Foundry
+ */
+public final class Events {
+    public static final int TYPE_COUNT = 16;
+
+    private Events() {}
+
+    public static BenchmarkEvent create(int type) {
+        switch (type) {
+            case 0:
+                return new E0();
+            case 1:
+                return new E1();
+            case 2:
+                return new E2();
+            case 3:
+                return new E3();
+            case 4:
+                return new E4();
+            case 5:
+                return new E5();
+            case 6:
+                return new E6();
+            case 7:
+                return new E7();
+            case 8:
+                return new E8();
+            case 9:
+                return new E9();
+            case 10:
+                return new E10();
+            case 11:
+                return new E11();
+            case 12:
+                return new E12();
+            case 13:
+                return new E13();
+            case 14:
+                return new E14();
+            case 15:
+                return new E15();
+            default:
+                throw new IllegalArgumentException("No event type " + type);
+        }
+    }
+
+    public abstract static class BenchmarkEvent {}
+
+    public static final class E0 extends BenchmarkEvent {}
+
+    public static final class E1 extends BenchmarkEvent {}
+
+    public static final class E2 extends BenchmarkEvent {}
+
+    public static final class E3 extends BenchmarkEvent {}
+
+    public static final class E4 extends BenchmarkEvent {}
+
+    public static final class E5 extends BenchmarkEvent {}
+
+    public static final class E6 extends BenchmarkEvent {}
+
+    public static final class E7 extends BenchmarkEvent {}
+
+    public static final class E8 extends BenchmarkEvent {}
+
+    public static final class E9 extends BenchmarkEvent {}
+
+    public static final class E10 extends BenchmarkEvent {}
+
+    public static final class E11 extends BenchmarkEvent {}
+
+    public static final class E12 extends BenchmarkEvent {}
+
+    public static final class E13 extends BenchmarkEvent {}
+
+    public static final class E14 extends BenchmarkEvent {}
+
+    public static final class E15 extends BenchmarkEvent {}
+}
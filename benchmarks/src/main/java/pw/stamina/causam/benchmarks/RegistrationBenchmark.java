@@ -0,0 +1,81 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pw.stamina.causam.api.EventBus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registration and unregistration against the number of containers already registered with the bus
+ *
+ * @author Foundry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"0", "100", "1000"})
+    public int registeredCount;
+
+    @Param({"DEFAULT", "CACHING"})
+    public BusConfiguration configuration;
+
+    private EventBus<Object, Events.BenchmarkEvent> bus;
+
+    private Subscriber recurring;
+
+    @Setup
+    public void setUp() {
+        bus = configuration.create();
+        for (int i = 0; i < registeredCount; i++) {
+            bus.register(new Subscriber());
+        }
+        recurring = new Subscriber();
+    }
+
+    @Benchmark
+    public boolean registerNewInstance() {
+        final Subscriber subscriber = new Subscriber();
+        bus.register(subscriber);
+        return bus.unregister(subscriber);
+    }
+
+    @Benchmark
+    public boolean registerSameInstance() {
+        bus.register(recurring);
+        return bus.unregister(recurring);
+    }
+}
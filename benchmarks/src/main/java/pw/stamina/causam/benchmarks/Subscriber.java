@@ -0,0 +1,113 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+
+/**
+ * A listener container declaring one reactive method for each of the {@link Events benchmark event types}
+ * <p>
+ * Methods are public so that no privileged lookup is required to bind them.
+ *
+ * @author Foundry
+ */
+public class Subscriber {
+    public long received;
+
+    @Reactive
+    public void on(Events.E0 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E1 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E2 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E3 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E4 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E5 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E6 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E7 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E8 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E9 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E10 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E11 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E12 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E13 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E14 event) {
+        received++;
+    }
+
+    @Reactive
+    public void on(Events.E15 event) {
+        received++;
+    }
+}
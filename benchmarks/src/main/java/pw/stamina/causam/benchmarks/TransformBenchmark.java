@@ -0,0 +1,71 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pw.stamina.causam.internal.implementations.annotated.method.MethodInvoker;
+import pw.stamina.causam.internal.implementations.annotated.method.transformer.ReflectionMethodTransformer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the cost of converting a listener method into an invoker, both bound to an instance and unbound
+ *
+ * @author Foundry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+
+    private Subscriber subscriber;
+
+    private Method method;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        subscriber = new Subscriber();
+        method = Subscriber.class.getMethod("on", Events.E0.class);
+    }
+
+    @Benchmark
+    public Object transformBound() {
+        return ReflectionMethodTransformer.transform(Consumer.class, Subscriber.class, subscriber, method);
+    }
+
+    @Benchmark
+    public Object transformUnbound() {
+        return ReflectionMethodTransformer.transformUnbound(MethodInvoker.class, Subscriber.class, method);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the weak map under many threads against a strongly keyed {@link ConcurrentHashMap} as the baseline
+ * <p>
+ * The map holds the listeners cached per container by a caching registry, keyed by container identity, and the per
+ * listener state of the decorating dispatchers, keyed by listener and listener array. Both identity and equality keyed
+ * maps are measured.
+ * <p>
+ * Each operation resolves a random key out of a fixed pool through {@code computeIfAbsent}, and every so often removes
+ * it again, so both the hit path and the insertion path are exercised.
+ *
+ * @author Foundry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeakMapBenchmark {
+
+    private static final int KEY_COUNT = 4096;
+
+    @Param({"WEAK_IDENTITY", "WEAK", "STRONG"})
+    public String implementation;
+
+    private ConcurrentMap<Object, Object> map;
+
+    private Object[] keys;
+
+    @Setup
+    public void setUp() {
+        switch (implementation) {
+            case "WEAK_IDENTITY":
+                map = new ConcurrentWeakHashMap<>(true);
+                break;
+            case "WEAK":
+                map = new ConcurrentWeakHashMap<>();
+                break;
+            default:
+                map = new ConcurrentHashMap<>();
+        }
+        keys = new Object[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = new Object();
+        }
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Object computeIfAbsent() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Object key = keys[random.nextInt(KEY_COUNT)];
+        if (random.nextInt(16) == 0) {
+            return map.remove(key);
+        }
+        return map.computeIfAbsent(key, k -> new Object());
+    }
+}
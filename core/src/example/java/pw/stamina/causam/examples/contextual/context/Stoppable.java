@@ -18,8 +18,11 @@
 
 package pw.stamina.causam.examples.contextual.context;
 
-public interface Stoppable extends Context {
+import pw.stamina.causam.api.StoppableEvent;
+
+public interface Stoppable extends Context, StoppableEvent {
     void stop();
 
+    @Override
     boolean isStopped();
 }
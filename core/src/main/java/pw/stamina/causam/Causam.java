@@ -20,9 +20,11 @@ package pw.stamina.causam;
 
 import pw.stamina.causam.api.EventBus;
 import pw.stamina.causam.api.configuration.CausamConfiguration;
+import pw.stamina.causam.api.configuration.ConfigurationBuilder;
 import pw.stamina.causam.internal.bus.EventBusFactory;
 
 import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * @author Foundry
@@ -37,6 +39,18 @@ public final class Causam {
         return EventBusFactory.makeConfiguredBus(configurationFunction.apply(containerClass, eventClass));
     }
 
+    /**
+     * Makes a bus from a configuration, such as one of the presets in
+     * {@link pw.stamina.causam.api.configuration.Configurations}, extended by the specified customization with options
+     * like {@link ConfigurationBuilder#withStickyEvents(Class[]) sticky events} or
+     * {@link ConfigurationBuilder#withMetrics(pw.stamina.causam.api.metrics.DispatchMetrics) metrics}
+     */
+    public static <C, L, E> EventBus<C, E> makeBus(Class<C> containerClass, Class<E> eventClass,
+                                                   BiFunction<Class<C>, Class<E>, CausamConfiguration<C, L, E>> configurationFunction,
+                                                   UnaryOperator<ConfigurationBuilder<C, L, E>> customization) {
+        return EventBusFactory.makeConfiguredBus(customization.apply(ConfigurationBuilder.from(configurationFunction.apply(containerClass, eventClass))));
+    }
+
     public static String getVersion() {
         return "0.1.0";
     }
@@ -0,0 +1,42 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api;
+
+/**
+ * An event which was dispatched while nothing listened to it, re-dispatched in this wrapper so that it can be observed
+ * <p>
+ * Buses only re-dispatch events which went unheard when configured with a dead event factory, such as
+ * {@code DeadEvent::new}. That factory only fits buses whose event type is a supertype of this class, such as
+ * {@link Object}; other buses need a dead event type of their own. Dead events which go unheard themselves are
+ * dropped, as are dead events which are not instances of the event type of the bus.
+ *
+ * @author Foundry
+ */
+public class DeadEvent {
+    private final Object event;
+
+    public DeadEvent(Object event) {
+        this.event = event;
+    }
+
+    public Object getEvent() {
+        return event;
+    }
+}
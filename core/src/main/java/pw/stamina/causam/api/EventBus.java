@@ -0,0 +1,63 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.api;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Foundry
+ */
+public interface EventBus<C, E> {
+    boolean register(C container);
+
+    boolean unregister(C container);
+
+    <T extends E> T dispatch(T event);
+
+    <T extends E> CompletableFuture<T> dispatchAsync(T event);
+
+    /**
+     * Dispatches a batch of events, looking up listeners only once for each distinct event class in the batch
+     * <p>
+     * Events are grouped by their class, and {@link KeyedEvent keyed events} additionally by their routing key. Each group
+     * is handed to the dispatcher as a whole. Events of the same group keep their relative order, but no ordering is
+     * guaranteed between events of different groups.
+     */
+    void dispatchAll(Collection<? extends E> events);
+
+    /**
+     * Checks whether events of the specified class may have listeners, so that producers can skip building events that
+     * nobody would receive
+     * <p>
+     * Only listeners of the class itself and of its supertypes are considered, as those are the listeners an event of
+     * exactly that class would reach. Asking about an abstract class or an interface therefore answers false when only
+     * its subtypes have listeners, so producers should ask about the concrete class of the event they would build.
+     */
+    boolean hasListeners(Class<? extends E> eventClass);
+
+    /**
+     * Gets the number of events of exactly the specified class which were dispatched while they had no listeners
+     */
+    long getDeadEventCount(Class<? extends E> eventClass);
+
+    Class<C> getContainerType();
+
+    Class<E> getEventType();
+}
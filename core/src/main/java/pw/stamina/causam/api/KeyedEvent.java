@@ -16,17 +16,18 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
-package pw.stamina.causam.api;
 
-import java.util.Optional;
+package pw.stamina.causam.api;
 
 /**
+ * An event carrying a routing key, delivered to keyed listeners only when it equals their subscription key
+ * <p>
+ * Listeners which are not keyed receive the event as usual, whatever its key. An event with a null key only reaches
+ * listeners which are not keyed.
+ *
  * @author Foundry
+ * @see KeyedSubscriber
  */
-public interface ListenerRegistry<C, L, E> {
-    boolean register(C container);
-
-    boolean unregister(C container);
-
-    Optional<Iterable<Listener<L, E>>> findListeners(E event);
+public interface KeyedEvent {
+    Object getRoutingKey();
 }
@@ -16,19 +16,17 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+
 package pw.stamina.causam.api;
 
 /**
+ * A container whose keyed listeners only receive {@link KeyedEvent keyed events} carrying its subscription key
+ * <p>
+ * The key is read when the container is registered and must not change while it is registered. Keys are compared by
+ * {@link Object#equals(Object) equals}.
+ *
  * @author Foundry
  */
-public interface EventBus<C, E> {
-    boolean register(C container);
-
-    boolean unregister(C container);
-
-    <T extends E> T dispatch(T event);
-
-    Class<C> getContainerType();
-
-    Class<E> getEventType();
+public interface KeyedSubscriber {
+    Object getSubscriptionKey();
 }
@@ -0,0 +1,48 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.api;
+
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.util.function.Predicate;
+
+/**
+ * @author Foundry
+ */
+public interface Listener<L, E> {
+    void invoke(E event) throws Throwable;
+
+    L getListenerObject();
+
+    Class<? extends E> getEventType();
+
+    default Order getPriority() {
+        return Order.DEFAULT;
+    }
+
+    /**
+     * Gets the predicate an event must satisfy for this listener to be invoked, or null if every event is accepted
+     * <p>
+     * Dispatchers test the filter before invoking the listener. Consecutive listeners returning the same filter
+     * instance may have it evaluated only once per event.
+     */
+    default Predicate<? super E> getFilter() {
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author Foundry
+ */
+public interface ListenerRegistry<C, L, E> {
+    boolean register(C container);
+
+    boolean unregister(C container);
+
+    Optional<Iterable<Listener<L, E>>> findListeners(E event);
+
+    /**
+     * Checks whether events of the specified class may have listeners, whatever their routing key and however their
+     * listeners filter them
+     * <p>
+     * Like dispatch, this considers the listeners of the class and of its supertypes, but not those of its subtypes.
+     * <p>
+     * This is meant to be cheap enough for producers to ask before building an event. Registries which cannot tell
+     * answer true by default, so that no event which could be heard is skipped.
+     */
+    default boolean hasListeners(Class<? extends E> eventClass) {
+        return true;
+    }
+
+    /**
+     * Finds the listeners bound to a registered container which would receive the specified event, in the order in which
+     * they are to be invoked
+     * <p>
+     * This is used to replay events to a single container. Registries which do not track the listeners of each container
+     * find none by default.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    default Listener<L, E>[] findContainerListeners(C container, E event) {
+        return new Listener[0];
+    }
+
+    /**
+     * Finds the listeners of the specified event as an array, in the order in which they are to be invoked
+     * <p>
+     * An event without listeners yields an empty array. The returned array may be shared between lookups and must not
+     * be modified. Registries that already keep their listeners in arrays should override this so that dispatch does
+     * not allocate; by default the result of {@link #findListeners(Object)} is copied.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    default Listener<L, E>[] findListenerArray(E event) {
+        final List<Listener<L, E>> found = new ArrayList<>();
+        findListeners(event).ifPresent(listeners -> listeners.forEach(found::add));
+        return found.toArray(new Listener[found.size()]);
+    }
+}
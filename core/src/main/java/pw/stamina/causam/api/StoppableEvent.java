@@ -0,0 +1,33 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api;
+
+/**
+ * An event whose propagation can be stopped by one of its listeners
+ * <p>
+ * Dispatchers check the event between listeners. Once it has been stopped, the remaining listeners are skipped, except
+ * for read-only {@link pw.stamina.causam.internal.implementations.common.Order#isMonitor() monitors}, which still
+ * observe the final state of the event.
+ *
+ * @author Foundry
+ */
+public interface StoppableEvent {
+    boolean isStopped();
+}
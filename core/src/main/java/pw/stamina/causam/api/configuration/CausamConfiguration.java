@@ -21,6 +21,11 @@ package pw.stamina.causam.api.configuration;
 import pw.stamina.causam.api.ListenerRegistry;
 import pw.stamina.causam.api.dispatch.Dispatcher;
 import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.metrics.DispatchMetrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
 
 /**
  * @author Foundry
@@ -35,4 +40,27 @@ public interface CausamConfiguration<C, L, E> {
     Dispatcher<L, E> getDispatcher();
 
     Iterable<ExceptionHandler> getExceptionHandlers();
+
+    /**
+     * Gets the event types whose last dispatched instance is kept by the bus and replayed to containers as they are
+     * registered
+     */
+    default Collection<Class<? extends E>> getStickyEventTypes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the metrics to which the bus reports its dispatch activity, or null if the bus is not instrumented
+     */
+    default DispatchMetrics getMetrics() {
+        return null;
+    }
+
+    /**
+     * Gets the factory wrapping events which went unheard into dead events to re-dispatch, or null if unheard events are
+     * only counted
+     */
+    default Function<? super E, ? extends E> getDeadEventFactory() {
+        return null;
+    }
 }
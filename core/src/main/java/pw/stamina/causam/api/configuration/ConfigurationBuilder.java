@@ -0,0 +1,196 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.api.configuration;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.ListenerRegistry;
+import pw.stamina.causam.api.dispatch.Dispatch;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.metrics.DispatchMetrics;
+import pw.stamina.causam.internal.implementations.common.BasicConcurrentDispatcher;
+import pw.stamina.causam.internal.implementations.common.BasicDispatcher;
+import pw.stamina.causam.internal.implementations.common.MonitorDispatcher;
+import pw.stamina.causam.internal.registration.ListenerRegistryFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @author Foundry
+ */
+public class ConfigurationBuilder<C, L, E> implements CausamConfiguration<C, L, E> {
+
+    private final Class<C> containerClass;
+
+    private final Class<E> eventClass;
+
+    private ListenerRegistry<C, L, E> listenerRegistry;
+
+    private Dispatcher<L, E> dispatcher;
+
+    private List<ExceptionHandler> exceptionHandlers;
+
+    private final List<Class<? extends E>> stickyEventTypes = new ArrayList<>();
+
+    private DispatchMetrics metrics;
+
+    private Function<? super E, ? extends E> deadEventFactory;
+
+    private ConfigurationBuilder(Class<C> containerClass, Class<E> eventClass) {
+        this.containerClass = containerClass;
+        this.eventClass = eventClass;
+    }
+
+    public <T> ConfigurationBuilder<C, L, E>
+    usingRegistry(Supplier<T> registrySupplier,
+                  BiFunction<T, C, Boolean> registrationFunction,
+                  BiFunction<T, C, Boolean> unregistrationFunction,
+                  BiFunction<E, T, Optional<Iterable<Listener<L, E>>>> listenerLookupFunction) {
+        listenerRegistry = ListenerRegistryFactory.makeProxyRegistry(registrySupplier, registrationFunction, unregistrationFunction, listenerLookupFunction);
+        return this;
+    }
+
+    public ConfigurationBuilder<C, L, E> usingRegistry(ListenerRegistry<C, L, E> listenerRegistry) {
+        this.listenerRegistry = listenerRegistry;
+        return this;
+    }
+
+    public ConfigurationBuilder<C, L, E> usingDispatcher(Dispatcher<L, E> dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    public ConfigurationBuilder<C, L, E> usingDispatcher(Dispatch dispatch) {
+        switch (dispatch) {
+            case SEQUENTIAL:
+                return usingDispatcher(new BasicDispatcher<>());
+            case CONCURRENT:
+                return usingDispatcher(new BasicConcurrentDispatcher<>());
+            case MONITORED:
+                return usingDispatcher(new MonitorDispatcher<>());
+            default:
+                throw new IllegalArgumentException("Unsupported dispatch strategy " + dispatch);
+        }
+    }
+
+    public ConfigurationBuilder<C, L, E> withExceptionHandling(ExceptionHandler... handlers) {
+        if (exceptionHandlers == null) exceptionHandlers = new ArrayList<>();
+        Collections.addAll(exceptionHandlers, handlers);
+        return this;
+    }
+
+    /**
+     * Makes the specified event types sticky: the last dispatched event of each is kept, and replayed to the listeners of
+     * a container as soon as it is registered
+     */
+    @SafeVarargs
+    public final ConfigurationBuilder<C, L, E> withStickyEvents(Class<? extends E>... eventTypes) {
+        //copied by hand; passing the array on to another varargs method is what javac flags as heap pollution
+        for (Class<? extends E> eventType : eventTypes) {
+            stickyEventTypes.add(eventType);
+        }
+        return this;
+    }
+
+    /**
+     * Instruments the bus, reporting every dispatch and timing every listener invocation through the specified metrics
+     */
+    public ConfigurationBuilder<C, L, E> withMetrics(DispatchMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Re-dispatches every event which has no listeners wrapped into a dead event by the specified factory, such as
+     * {@code DeadEvent::new} when the event type is a supertype of {@link pw.stamina.causam.api.DeadEvent}
+     */
+    public ConfigurationBuilder<C, L, E> withDeadEvents(Function<? super E, ? extends E> deadEventFactory) {
+        this.deadEventFactory = deadEventFactory;
+        return this;
+    }
+
+    public static <C, L, E> ConfigurationBuilder<C, L, E> from(Class<C> containerClass, Class<L> listenerType, Class<E> eventClass) {
+        return new ConfigurationBuilder<>(containerClass, eventClass);
+    }
+
+    /**
+     * Creates a builder starting out with every setting of the specified configuration, such as one of the presets in
+     * {@link Configurations}, so that further options can be added to it
+     */
+    public static <C, L, E> ConfigurationBuilder<C, L, E> from(CausamConfiguration<C, L, E> configuration) {
+        final ConfigurationBuilder<C, L, E> builder = new ConfigurationBuilder<>(configuration.getContainerType(), configuration.getEventType());
+        builder.listenerRegistry = configuration.getListenerRegistry();
+        builder.dispatcher = configuration.getDispatcher();
+        if (configuration.getExceptionHandlers() != null) {
+            builder.exceptionHandlers = new ArrayList<>();
+            configuration.getExceptionHandlers().forEach(builder.exceptionHandlers::add);
+        }
+        builder.stickyEventTypes.addAll(configuration.getStickyEventTypes());
+        builder.metrics = configuration.getMetrics();
+        builder.deadEventFactory = configuration.getDeadEventFactory();
+        return builder;
+    }
+
+    @Override
+    public Class<C> getContainerType() {
+        return containerClass;
+    }
+
+    @Override
+    public Class<E> getEventType() {
+        return eventClass;
+    }
+
+    @Override
+    public ListenerRegistry<C, L, E> getListenerRegistry() {
+        return listenerRegistry;
+    }
+
+    @Override
+    public Dispatcher<L, E> getDispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public Iterable<ExceptionHandler> getExceptionHandlers() {
+        return exceptionHandlers;
+    }
+
+    @Override
+    public Collection<Class<? extends E>> getStickyEventTypes() {
+        return stickyEventTypes;
+    }
+
+    @Override
+    public DispatchMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Function<? super E, ? extends E> getDeadEventFactory() {
+        return deadEventFactory;
+    }
+}
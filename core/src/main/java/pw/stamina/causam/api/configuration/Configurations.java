@@ -18,13 +18,13 @@
 
 package pw.stamina.causam.api.configuration;
 
+import pw.stamina.causam.api.dispatch.Dispatch;
 import pw.stamina.causam.api.exception.ExceptionHandler;
 import pw.stamina.causam.internal.implementations.annotated.method.AnnotatedMethodListenerRegistry;
 import pw.stamina.causam.internal.implementations.common.BasicDispatcher;
 import pw.stamina.causam.internal.implementations.common.BasicExceptionHandler;
 
 import java.lang.reflect.Method;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 /**
@@ -37,7 +37,7 @@ public final class Configurations {
     public static <C, E> BiFunction<Class<C>, Class<E>, CausamConfiguration<C, Method, E>> defaultAnnotated(ExceptionHandler... exceptionHandlers) {
         return (c, e) -> {
             ConfigurationBuilder<C, Method, E> b = ConfigurationBuilder.from(c, Method.class, e)
-                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, new ConcurrentHashMap<>(), false))
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, false))
                     .usingDispatcher(new BasicDispatcher<>());
             return (exceptionHandlers.length > 0 ? b.withExceptionHandling(exceptionHandlers) : b.withExceptionHandling(BasicExceptionHandler.getInstance()));
         };
@@ -46,9 +46,44 @@ public final class Configurations {
     public static <C, E> BiFunction<Class<C>, Class<E>, CausamConfiguration<C, Method, E>> cachingAnnotated(ExceptionHandler... exceptionHandlers) {
         return (c, e) -> {
             ConfigurationBuilder<C, Method, E> b = ConfigurationBuilder.from(c, Method.class, e)
-                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, new ConcurrentHashMap<>(), true))
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, true))
                     .usingDispatcher(new BasicDispatcher<>());
             return (exceptionHandlers.length > 0 ? b.withExceptionHandling(exceptionHandlers) : b.withExceptionHandling(BasicExceptionHandler.getInstance()));
         };
     }
+
+    /**
+     * Creates a caching configuration whose bus holds registered containers only weakly, so that containers which are
+     * never unregistered do not leak together with their listeners
+     */
+    public static <C, E> BiFunction<Class<C>, Class<E>, CausamConfiguration<C, Method, E>> weakAnnotated(ExceptionHandler... exceptionHandlers) {
+        return (c, e) -> {
+            ConfigurationBuilder<C, Method, E> b = ConfigurationBuilder.from(c, Method.class, e)
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, true, true))
+                    .usingDispatcher(new BasicDispatcher<>());
+            return (exceptionHandlers.length > 0 ? b.withExceptionHandling(exceptionHandlers) : b.withExceptionHandling(BasicExceptionHandler.getInstance()));
+        };
+    }
+
+    /**
+     * Creates a caching configuration which looks up the listeners of each event class by an integer id rather than by
+     * hashing the class, suited to buses serving many event types
+     */
+    public static <C, E> BiFunction<Class<C>, Class<E>, CausamConfiguration<C, Method, E>> indexedAnnotated(ExceptionHandler... exceptionHandlers) {
+        return (c, e) -> {
+            ConfigurationBuilder<C, Method, E> b = ConfigurationBuilder.from(c, Method.class, e)
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, true, false, true))
+                    .usingDispatcher(new BasicDispatcher<>());
+            return (exceptionHandlers.length > 0 ? b.withExceptionHandling(exceptionHandlers) : b.withExceptionHandling(BasicExceptionHandler.getInstance()));
+        };
+    }
+
+    public static <C, E> BiFunction<Class<C>, Class<E>, CausamConfiguration<C, Method, E>> concurrentAnnotated(ExceptionHandler... exceptionHandlers) {
+        return (c, e) -> {
+            ConfigurationBuilder<C, Method, E> b = ConfigurationBuilder.from(c, Method.class, e)
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, true))
+                    .usingDispatcher(Dispatch.CONCURRENT);
+            return (exceptionHandlers.length > 0 ? b.withExceptionHandling(exceptionHandlers) : b.withExceptionHandling(BasicExceptionHandler.getInstance()));
+        };
+    }
 }
@@ -23,6 +23,6 @@ import java.util.concurrent.ThreadFactory;
 /**
  * @author Foundry
  */
-public interface ConcurrentDispatcher extends Dispatcher {
+public interface ConcurrentDispatcher<L, E> extends Dispatcher<L, E> {
     ThreadFactory getThreadFactory();
 }
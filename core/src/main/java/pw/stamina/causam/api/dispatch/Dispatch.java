@@ -22,5 +22,5 @@ package pw.stamina.causam.api.dispatch;
  * @author Foundry
  */
 public enum Dispatch {
-    SEQUENTIAL, CONCURRENT
+    SEQUENTIAL, CONCURRENT, MONITORED
 }
@@ -0,0 +1,94 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.dispatch;
+
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.Listener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @author Foundry
+ */
+public interface Dispatcher<L, E> {
+    void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers);
+
+    /**
+     * Dispatches an event to listeners found through {@link pw.stamina.causam.api.ListenerRegistry#findListenerArray
+     * findListenerArray}
+     * <p>
+     * The array must not be modified. Dispatchers should override this to walk the array directly, as the default wraps
+     * it in a list.
+     */
+    default void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatch(event, Arrays.asList(listeners), exceptionHandlers);
+    }
+
+    /**
+     * Dispatches a batch of events which all share the same set of listeners
+     * <p>
+     * By default each event is dispatched in turn. Implementations may instead run each listener over the whole batch
+     * before moving on to the next listener, as long as every event still observes its listeners in order.
+     */
+    default void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        for (E event : events) {
+            dispatch(event, listeners, exceptionHandlers);
+        }
+    }
+
+    /**
+     * Hands an event off for dispatch on another thread, returning without waiting for any listener to be invoked
+     * <p>
+     * The returned future completes once every listener has been invoked. Listener failures are reported to the
+     * exception handlers as usual, and additionally complete the future exceptionally with a
+     * {@link pw.stamina.causam.api.exception.DispatchException DispatchException}.
+     * <p>
+     * Dispatchers without a thread pool of their own deliver through the {@link ForkJoinPool#commonPool() common pool}.
+     * Events dispatched asynchronously are not guaranteed to be delivered in the order they were submitted. When the
+     * executor rejects the dispatch, the future completes exceptionally with its
+     * {@link RejectedExecutionException}.
+     */
+    default CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatchAsync(event, listeners, exceptionHandlers, ForkJoinPool.commonPool());
+    }
+
+    default CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers, Executor executor) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final FailureRecordingHandlers recordingHandlers = new FailureRecordingHandlers(exceptionHandlers);
+        try {
+            executor.execute(() -> {
+                try {
+                    dispatch(event, listeners, recordingHandlers);
+                    recordingHandlers.complete(future);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);    //a caller handed a future expects to learn of failures through it
+        }
+        return future;
+    }
+}
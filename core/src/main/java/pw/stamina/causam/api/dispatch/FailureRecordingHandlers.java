@@ -0,0 +1,83 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.dispatch;
+
+import pw.stamina.causam.api.exception.DispatchException;
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An exception handler chain that appends a recording handler to the configured handlers, so that the outcome of an
+ * asynchronous dispatch can be reflected in its future
+ *
+ * @author Foundry
+ */
+final class FailureRecordingHandlers implements Iterable<ExceptionHandler>, ExceptionHandler {
+
+    private final Iterable<ExceptionHandler> exceptionHandlers;
+
+    private DispatchException failure;
+
+    FailureRecordingHandlers(Iterable<ExceptionHandler> exceptionHandlers) {
+        this.exceptionHandlers = exceptionHandlers;
+    }
+
+    @Override
+    public synchronized void handleException(ExceptionContext<?> context) {
+        if (failure == null) {
+            failure = new DispatchException(context.getEvent(), context.getCause());
+        } else {
+            failure.addSuppressed(context.getCause());
+        }
+    }
+
+    synchronized void complete(CompletableFuture<Void> future) {
+        if (failure == null) {
+            future.complete(null);
+        } else {
+            future.completeExceptionally(failure);
+        }
+    }
+
+    @Override
+    public Iterator<ExceptionHandler> iterator() {
+        final Iterator<ExceptionHandler> delegate = exceptionHandlers.iterator();
+        return new Iterator<ExceptionHandler>() {
+            private boolean recorderReturned;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext() || !recorderReturned;
+            }
+
+            @Override
+            public ExceptionHandler next() {
+                if (delegate.hasNext()) return delegate.next();
+                if (recorderReturned) throw new NoSuchElementException();
+                recorderReturned = true;
+                return FailureRecordingHandlers.this;
+            }
+        };
+    }
+}
@@ -21,5 +21,5 @@ package pw.stamina.causam.api.dispatch;
 /**
  * @author Foundry
  */
-public interface SequentialDispatcher extends Dispatcher {
+public interface SequentialDispatcher<L, E> extends Dispatcher<L, E> {
 }
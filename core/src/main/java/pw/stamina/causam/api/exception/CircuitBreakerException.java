@@ -0,0 +1,59 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.exception;
+
+/**
+ * Signals that the circuit breaker of a listener has changed state
+ * <p>
+ * A listener whose breaker is {@link State#OPEN open} is skipped, as it has been failing repeatedly. Once the breaker
+ * has been open for a while it turns {@link State#HALF_OPEN half-open}, and the next event is delivered to the listener
+ * as a probe. The breaker closes again if the probe succeeds. When the breaker opens, the cause of this exception is the
+ * failure which tripped it.
+ *
+ * @author Foundry
+ */
+public class CircuitBreakerException extends RuntimeException {
+
+    private static final long serialVersionUID = 6172449034728113541L;
+
+    private final transient Object listenerObject;
+
+    private final State state;
+
+    public CircuitBreakerException(Object listenerObject, State state, Throwable cause) {
+        super("Circuit breaker of listener " + listenerObject + " is now " + state, cause, true, false);    //the stack of a state change says nothing
+        this.listenerObject = listenerObject;
+        this.state = state;
+    }
+
+    public Object getListenerObject() {
+        return listenerObject;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.exception;
+
+/**
+ * Signals that one or more listeners failed while an event was being dispatched
+ * <p>
+ * The first failure is available as the {@link #getCause() cause} of this exception, while any further failures
+ * produced by the same dispatch are attached as {@link #getSuppressed() suppressed} exceptions.
+ *
+ * @author Foundry
+ */
+public class DispatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 4311630577165279437L;
+
+    private final transient Object event;
+
+    public DispatchException(Object event, Throwable cause) {
+        super("Listener failed while dispatching " + (event != null ? event.getClass().getName() : "null"), cause);
+        this.event = event;
+    }
+
+    public Object getEvent() {
+        return event;
+    }
+}
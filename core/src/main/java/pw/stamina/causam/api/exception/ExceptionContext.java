@@ -27,11 +27,17 @@ public final class ExceptionContext<E> {
     private final Throwable cause;
     private final E event;
     private final Listener<?, E> listener;
+    private final long occurrences;
 
     public ExceptionContext(Throwable cause, E event, Listener<?, E> listener) {
+        this(cause, event, listener, 1);
+    }
+
+    public ExceptionContext(Throwable cause, E event, Listener<?, E> listener, long occurrences) {
         this.cause = cause;
         this.event = event;
         this.listener = listener;
+        this.occurrences = occurrences;
     }
 
     public Throwable getCause() {
@@ -45,4 +51,12 @@ public final class ExceptionContext<E> {
     public Listener<?, E> getListener() {
         return listener;
     }
+
+    /**
+     * Gets the number of failures this context stands for, which is more than one when repeats of the same failure
+     * were grouped together, and the cause and event are those of the latest of them
+     */
+    public long getOccurrences() {
+        return occurrences;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.exception;
+
+/**
+ * Signals that a listener has been running for longer than its time budget
+ * <p>
+ * The listener has not failed and may still be running when this is reported. The stack trace of this exception is the
+ * stack of the dispatching thread, sampled while the listener was over its budget.
+ *
+ * @author Foundry
+ */
+public class SlowListenerException extends RuntimeException {
+
+    private static final long serialVersionUID = -2870719341150486517L;
+
+    private final transient Object listenerObject;
+
+    private final Class<?> eventType;
+
+    private final long elapsedNanos;
+
+    private final long budgetNanos;
+
+    public SlowListenerException(Object listenerObject, Class<?> eventType, long elapsedNanos, long budgetNanos, Thread thread) {
+        super("Listener " + listenerObject + " has been handling " + eventType.getName() + " on " + thread.getName() + " for "
+                + elapsedNanos / 1_000_000 + "ms, over its budget of " + budgetNanos / 1_000_000 + "ms");
+        this.listenerObject = listenerObject;
+        this.eventType = eventType;
+        this.elapsedNanos = elapsedNanos;
+        this.budgetNanos = budgetNanos;
+    }
+
+    public Object getListenerObject() {
+        return listenerObject;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.api.metrics;
+
+import pw.stamina.causam.api.Listener;
+
+/**
+ * Receives measurements of the dispatch activity of a bus
+ * <p>
+ * A bus configured with metrics reports every dispatched event along with the number of listeners it was delivered to,
+ * and times every listener invocation. A bus configured without metrics does neither. Implementations are called from
+ * every dispatching thread, and must be safe for concurrent use.
+ *
+ * @author Foundry
+ */
+public interface DispatchMetrics {
+
+    /**
+     * Records the dispatch of an event of the specified type to the specified number of listeners, which is zero when
+     * nothing listens to the event
+     */
+    void recordDispatch(Class<?> eventType, int listenerCount);
+
+    /**
+     * Gets the recorder of invocations of the specified listener
+     * <p>
+     * This is called once when a listener is first instrumented, rather than on every invocation, and should return the
+     * same recorder every time it is called with the same listener.
+     */
+    ListenerRecorder forListener(Listener<?, ?> listener);
+
+    /**
+     * Records the invocations of a single listener
+     */
+    interface ListenerRecorder {
+        void recordInvocation(long latencyNanos);
+
+        void recordFailure(Throwable cause);
+    }
+}
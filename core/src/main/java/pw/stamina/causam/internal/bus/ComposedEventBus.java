@@ -0,0 +1,235 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.bus;
+
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.KeyedEvent;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.configuration.CausamConfiguration;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.metrics.DispatchMetrics;
+import pw.stamina.causam.internal.implementations.annotated.method.AnnotatedMethodListenerRegistry;
+import pw.stamina.causam.internal.implementations.annotated.method.transformer.ReflectionMethodTransformer;
+import pw.stamina.causam.internal.implementations.metrics.InstrumentedDispatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * @author Foundry
+ */
+class ComposedEventBus<C, L, E> implements EventBus<C, E> {
+
+    private final CausamConfiguration<C, L, E> configuration;
+
+    private final StickyEventCache<E> stickyEvents;
+
+    private final Dispatcher<L, E> dispatcher;
+
+    private final DispatchMetrics metrics;
+
+    private final Function<? super E, ? extends E> deadEventFactory;
+
+    private final AtomicBoolean invokerFallbackReported = new AtomicBoolean();
+
+    private final ClassValue<LongAdder> deadEventCounts = new ClassValue<LongAdder>() {
+        @Override
+        protected LongAdder computeValue(Class<?> type) {
+            return new LongAdder();
+        }
+    };
+
+    ComposedEventBus(CausamConfiguration<C, L, E> configuration) {
+        this.configuration = configuration;
+        this.deadEventFactory = configuration.getDeadEventFactory();
+        this.metrics = configuration.getMetrics();
+        this.dispatcher = (metrics == null ? configuration.getDispatcher() : new InstrumentedDispatcher<>(configuration.getDispatcher(), metrics));
+        this.stickyEvents = (configuration.getStickyEventTypes().isEmpty() ? null : new StickyEventCache<>(configuration.getStickyEventTypes()));
+    }
+
+    /**
+     * Registers a container, replaying the last dispatched event of each sticky type to it
+     * <p>
+     * Sticky events are recorded before they are delivered and replayed after the container has been registered, so a
+     * container registered while a sticky event is being dispatched receives that event at least once, possibly twice.
+     * <p>
+     * The first registration through an annotated registry reports to the exception handlers, without an event or
+     * listener, if listener methods have to be invoked through slower method handles.
+     */
+    @Override
+    public boolean register(C container) {
+        final boolean registered = configuration.getListenerRegistry().register(container);
+        if (registered && !invokerFallbackReported.get()) reportInvokerFallback();
+        if (registered && stickyEvents != null) {
+            stickyEvents.forEachRecorded(event -> {
+                final Listener<L, E>[] listeners = configuration.getListenerRegistry().findContainerListeners(container, event);
+                if (listeners.length > 0) {
+                    dispatcher.dispatch(event, listeners, configuration.getExceptionHandlers());
+                }
+            });
+        }
+        return registered;
+    }
+
+    private void reportInvokerFallback() {
+        if (!(configuration.getListenerRegistry() instanceof AnnotatedMethodListenerRegistry)) return;
+        ReflectionMethodTransformer.getPrivilegedLookupFailure().ifPresent(failure -> {
+            if (!invokerFallbackReported.compareAndSet(false, true)) return;
+            final ExceptionContext<E> context = new ExceptionContext<>(failure, null, null);
+            for (ExceptionHandler handler : configuration.getExceptionHandlers()) {
+                handler.handleException(context);
+            }
+        });
+    }
+
+    @Override
+    public boolean unregister(C container) {
+        return configuration.getListenerRegistry().unregister(container);
+    }
+
+    @Override
+    public <T extends E> T dispatch(T event) {
+        if (stickyEvents != null) stickyEvents.record(event);
+        final Listener<L, E>[] listeners = configuration.getListenerRegistry().findListenerArray(event);
+        if (metrics != null) metrics.recordDispatch(event.getClass(), listeners.length);
+        if (listeners.length > 0) {    //the array lookup keeps the common path free of allocation
+            dispatcher.dispatch(event, listeners, configuration.getExceptionHandlers());
+        } else {
+            dispatchDeadEvent(event);
+        }
+        return event;
+    }
+
+    /**
+     * Counts an event which went unheard, and re-dispatches it as a dead event if the bus is configured to. Dead events
+     * which go unheard themselves are only counted.
+     */
+    private void dispatchDeadEvent(E event) {
+        deadEventCounts.get(event.getClass()).increment();
+        if (deadEventFactory == null) return;
+        final E deadEvent = deadEventFactory.apply(event);
+        if (!isDispatchable(deadEvent)) return;
+        final Listener<L, E>[] listeners = configuration.getListenerRegistry().findListenerArray(deadEvent);
+        if (listeners.length > 0) {
+            dispatcher.dispatch(deadEvent, listeners, configuration.getExceptionHandlers());
+        } else {
+            deadEventCounts.get(deadEvent.getClass()).increment();
+        }
+    }
+
+    @Override
+    public <T extends E> CompletableFuture<T> dispatchAsync(T event) {
+        if (stickyEvents != null) stickyEvents.record(event);
+        final Optional<Iterable<Listener<L, E>>> listeners = configuration.getListenerRegistry().findListeners(event);
+        if (metrics != null) metrics.recordDispatch(event.getClass(), listeners.map(ComposedEventBus::count).orElse(0));
+        return listeners
+                .map(it -> dispatcher.dispatchAsync(event, it, configuration.getExceptionHandlers()).thenApply(v -> event))
+                .orElseGet(() -> dispatchDeadEventAsync(event));
+    }
+
+    @Override
+    public void dispatchAll(Collection<? extends E> events) {
+        final Map<Object, List<E>> batches = new LinkedHashMap<>();
+        Class<?> lastType = null;
+        List<E> lastBatch = null;
+        for (E event : events) {
+            if (stickyEvents != null) stickyEvents.record(event);
+            if (event instanceof KeyedEvent) {    //keyed events may reach different listeners than others of their type
+                final Object key = ((KeyedEvent) event).getRoutingKey();
+                batches.computeIfAbsent(Arrays.asList(event.getClass(), key), t -> new ArrayList<>()).add(event);
+                continue;
+            }
+            if (event.getClass() != lastType) {    //runs of the same type skip the map entirely
+                lastType = event.getClass();
+                lastBatch = batches.computeIfAbsent(lastType, t -> new ArrayList<>());
+            }
+            lastBatch.add(event);
+        }
+        for (List<E> batch : batches.values()) {
+            final Optional<Iterable<Listener<L, E>>> listeners = configuration.getListenerRegistry().findListeners(batch.get(0));
+            if (metrics != null) {
+                final int listenerCount = listeners.map(ComposedEventBus::count).orElse(0);
+                batch.forEach(event -> metrics.recordDispatch(event.getClass(), listenerCount));
+            }
+            if (listeners.isPresent()) {
+                dispatcher.dispatchAll(batch, listeners.get(), configuration.getExceptionHandlers());
+            } else {
+                batch.forEach(this::dispatchDeadEvent);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a dead event may be dispatched, which it may not when the factory returned none, or, through an
+     * unchecked cast, an event outside the event type of this bus
+     */
+    private boolean isDispatchable(E deadEvent) {
+        return deadEvent != null && configuration.getEventType().isInstance(deadEvent);
+    }
+
+    private <T extends E> CompletableFuture<T> dispatchDeadEventAsync(T event) {
+        deadEventCounts.get(event.getClass()).increment();
+        final E deadEvent = (deadEventFactory != null ? deadEventFactory.apply(event) : null);
+        if (!isDispatchable(deadEvent)) return CompletableFuture.completedFuture(event);
+        return configuration.getListenerRegistry().findListeners(deadEvent)
+                .map(it -> dispatcher.dispatchAsync(deadEvent, it, configuration.getExceptionHandlers()).thenApply(v -> event))
+                .orElseGet(() -> {
+                    deadEventCounts.get(deadEvent.getClass()).increment();
+                    return CompletableFuture.completedFuture(event);
+                });
+    }
+
+    private static int count(Iterable<?> listeners) {
+        if (listeners instanceof Collection) return ((Collection<?>) listeners).size();
+        int count = 0;
+        for (Object ignored : listeners) count++;
+        return count;
+    }
+
+    @Override
+    public boolean hasListeners(Class<? extends E> eventClass) {
+        return configuration.getListenerRegistry().hasListeners(eventClass);
+    }
+
+    @Override
+    public long getDeadEventCount(Class<? extends E> eventClass) {
+        return deadEventCounts.get(eventClass).sum();
+    }
+
+    @Override
+    public Class<C> getContainerType() {
+        return configuration.getContainerType();
+    }
+
+    @Override
+    public Class<E> getEventType() {
+        return configuration.getEventType();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.bus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the last dispatched event of each sticky event type, so that it can be replayed to containers registered later
+ * <p>
+ * Recording an event is lock-free: the slots an event class maps to are resolved once per class through a
+ * {@link ClassValue}, after which recording is a plain volatile store per slot. An event is recorded in the slot of
+ * every sticky type it is an instance of.
+ *
+ * @author Foundry
+ */
+final class StickyEventCache<E> {
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final Class<?>[] stickyTypes;
+
+    private final AtomicReferenceArray<E> lastEvents;
+
+    private final ClassValue<int[]> slots = new ClassValue<int[]>() {
+        @Override
+        protected int[] computeValue(Class<?> eventClass) {
+            final List<Integer> matching = new ArrayList<>();
+            for (int i = 0; i < stickyTypes.length; i++) {
+                if (stickyTypes[i].isAssignableFrom(eventClass)) matching.add(i);
+            }
+            return matching.isEmpty() ? NO_SLOTS : matching.stream().mapToInt(Integer::intValue).toArray();
+        }
+    };
+
+    StickyEventCache(Collection<? extends Class<?>> stickyTypes) {
+        this.stickyTypes = stickyTypes.toArray(new Class<?>[0]);
+        this.lastEvents = new AtomicReferenceArray<>(this.stickyTypes.length);
+    }
+
+    void record(E event) {
+        for (int slot : slots.get(event.getClass())) {
+            lastEvents.set(slot, event);
+        }
+    }
+
+    /**
+     * Passes every recorded event to the specified action, once each even when it was recorded for several sticky types
+     */
+    void forEachRecorded(Consumer<? super E> action) {
+        for (int i = 0; i < stickyTypes.length; i++) {
+            final E event = lastEvents.get(i);
+            if (event != null && !recordedEarlier(event, i)) action.accept(event);
+        }
+    }
+
+    private boolean recordedEarlier(E event, int slot) {
+        for (int i = 0; i < slot; i++) {
+            if (lastEvents.get(i) == event) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import pw.stamina.causam.api.KeyedEvent;
+import pw.stamina.causam.api.KeyedSubscriber;
+import pw.stamina.causam.api.ListenerRegistry;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A listener registry binding methods annotated with {@link Reactive} to the event type of their single parameter
+ * <p>
+ * Listeners are delivered to polymorphically: an event reaches the listeners of its own class as well as those of every
+ * superclass and interface that is a subtype of the registry event type. The merged, ordered listeners for each concrete
+ * event class are resolved once and cached until the next registration change, so dispatch pays for a single lookup.
+ * That lookup hashes the event class by default; an indexed registry instead assigns each event class an integer id
+ * through a {@link ClassValue} and keeps the resolved listeners in an array, which suits buses with many event types.
+ * <p>
+ * Listeners are ordered by their {@link DynamicMethodProxyListener#getPriority() priority}. Listeners sharing a priority
+ * are invoked in the order in which they were first bound, whatever
+ * {@link pw.stamina.causam.internal.implementations.annotated.Filtered filters} they carry.
+ * <p>
+ * Listeners marked {@link pw.stamina.causam.internal.implementations.annotated.Keyed Keyed} are additionally indexed by
+ * the subscription key of their container, and are only looked up for {@link KeyedEvent keyed events} carrying an equal
+ * routing key. Dispatching such an event therefore costs one hash lookup, however many other keys are subscribed to.
+ * <p>
+ * Containers are tracked by identity. Each registered container maps to the listeners bound to it, so unregistering
+ * touches only that container's own listeners and never those of other instances of the same class. Registering a
+ * container that is already registered has no effect.
+ * <p>
+ * Containers may optionally be registered weakly. The listeners of a weakly registered container that becomes
+ * unreachable without being unregistered are skipped from then on, and removed in a batch by the next registration
+ * change or lookup.
+ *
+ * @author Foundry
+ */
+public class AnnotatedMethodListenerRegistry<C, E> implements ListenerRegistry<C, Method, E> {
+
+    private static final Comparator<DynamicMethodProxyListener<?>> ORDERING = (first, second) -> {
+        int discriminant = first.getPriority().compareTo(second.getPriority());
+        return discriminant != 0 ? discriminant : Long.compare(first.getSequence(), second.getSequence());
+    };
+
+    private static final int INITIAL_INDEX_CAPACITY = 64;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AnnotatedMethodListenerRegistry, ListenerSnapshot[]> INDEXED_CACHE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(AnnotatedMethodListenerRegistry.class, ListenerSnapshot[].class, "indexedListenerCache");
+
+    private final Class<E> eventType;
+
+    private final Map<C, List<DynamicMethodProxyListener<E>>> instanceListenerCache;
+
+    private final Map<Object, List<DynamicMethodProxyListener<E>>> registeredListeners;    //guarded by the registration lock
+
+    private final ReferenceQueue<Object> collectedContainers;
+
+    private final Map<Class<? extends E>, ListenerTable<E>> eventToListenerMap;
+
+    private volatile Map<Class<?>, ListenerSnapshot<E>> resolvedListenerCache;
+
+    private final Map<Object, KeyRoute<E>> keyRoutes = new ConcurrentHashMap<>();
+
+    private volatile long unkeyedGeneration;
+
+    private final Map<Class<? extends E>, Integer> keyedListenerCounts = new HashMap<>();    //guarded by the registration lock
+
+    private final Map<Class<?>, Boolean> keyedListenerPresence = new ConcurrentHashMap<>();    //only written under the registration lock
+
+    private final ClassValue<Integer> eventIds;
+
+    private volatile ListenerSnapshot<E>[] indexedListenerCache;
+
+    private final AtomicLong listenerSequence = new AtomicLong();
+
+    private final Object registrationLock = new Object();
+
+    /**
+     * @deprecated listeners are now kept in copy-on-write snapshots owned by the registry, so the backing map is ignored;
+     *             use {@link #AnnotatedMethodListenerRegistry(Class, boolean)} instead
+     */
+    @Deprecated
+    public AnnotatedMethodListenerRegistry(Class<E> eventType, Map<Class<? extends E>, Set<Listener<Method, E>>> backingMap, boolean caching) {
+        this(eventType, caching);
+    }
+
+    public AnnotatedMethodListenerRegistry(Class<E> eventType, boolean caching) {
+        this(eventType, caching, false);
+    }
+
+    /**
+     * @param eventType the type of events listened to
+     * @param caching whether the listeners bound to a container are kept for reuse when it is registered again; the
+     *                cache holds containers weakly and its listeners refer to their container weakly as well, so an
+     *                unregistered container remains collectable
+     * @param weak whether registered containers are only weakly referenced, so that they may be collected without
+     *             being unregistered
+     */
+    public AnnotatedMethodListenerRegistry(Class<E> eventType, boolean caching, boolean weak) {
+        this(eventType, caching, weak, false);
+    }
+
+    /**
+     * @param eventType the type of events listened to
+     * @param caching whether the listeners bound to a container are kept for reuse when it is registered again; the
+     *                cache holds containers weakly and its listeners refer to their container weakly as well, so an
+     *                unregistered container remains collectable
+     * @param weak whether registered containers are only weakly referenced, so that they may be collected without
+     *             being unregistered
+     * @param indexed whether each event class is assigned an integer id when first seen, so that the resolved
+     *                listeners are looked up in an array rather than a hash map
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AnnotatedMethodListenerRegistry(Class<E> eventType, boolean caching, boolean weak, boolean indexed) {
+        final AtomicInteger nextEventId = new AtomicInteger();
+        this.eventIds = (indexed ? new ClassValue<Integer>() {
+            @Override
+            protected Integer computeValue(Class<?> type) {
+                return nextEventId.getAndIncrement();    //a racing computation may discard an id, leaving a harmless gap
+            }
+        } : null);
+        this.indexedListenerCache = (indexed ? new ListenerSnapshot[INITIAL_INDEX_CAPACITY] : null);
+        this.registeredListeners = (weak ? new HashMap<>() : new IdentityHashMap<>());
+        this.collectedContainers = (weak ? new ReferenceQueue<>() : null);
+        this.eventToListenerMap = new ConcurrentHashMap<>();
+        this.resolvedListenerCache = new ConcurrentHashMap<>();
+        this.eventType = eventType;
+        this.instanceListenerCache = (caching ? new ConcurrentWeakHashMap<>(true) : null);    //containers are told apart by identity
+    }
+
+    @Override
+    public boolean register(C container) {
+        final List<DynamicMethodProxyListener<E>> instanceListeners = (instanceListenerCache != null ? getCachedInstanceListeners(container) : getInstanceListeners(container));
+        if (instanceListeners.isEmpty()) return false;
+        synchronized (registrationLock) {
+            purgeCollectedContainers();
+            final Object key = (collectedContainers != null ? instanceListeners.get(0).getParentReference() : container);
+            if (registeredListeners.putIfAbsent(key, instanceListeners) != null) return false;
+            addListeners(instanceListeners);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean unregister(C container) {
+        synchronized (registrationLock) {
+            purgeCollectedContainers();
+            final List<DynamicMethodProxyListener<E>> instanceListeners = registeredListeners.remove(collectedContainers != null ? new ContainerReference(container, null) : container);
+            if (instanceListeners == null) return false;
+            removeListeners(instanceListeners);
+        }
+        return true;
+    }
+
+    private void addListeners(List<DynamicMethodProxyListener<E>> instanceListeners) {
+        for (Map.Entry<Object, List<DynamicMethodProxyListener<E>>> route : groupBySubscriptionKey(instanceListeners).entrySet()) {
+            if (route.getKey() == null) {
+                for (Map.Entry<Class<? extends E>, List<DynamicMethodProxyListener<E>>> entry : groupByEventType(route.getValue()).entrySet()) {
+                    eventToListenerMap.computeIfAbsent(entry.getKey(), s -> new ListenerTable<>()).addAll(entry.getValue());
+                }
+                invalidateResolvedListeners();
+            } else {
+                final KeyRoute<E> keyRoute = keyRoutes.computeIfAbsent(route.getKey(), k -> new KeyRoute<>());
+                for (Map.Entry<Class<? extends E>, List<DynamicMethodProxyListener<E>>> entry : groupByEventType(route.getValue()).entrySet()) {
+                    keyRoute.tables.computeIfAbsent(entry.getKey(), s -> new ListenerTable<>()).addAll(entry.getValue());
+                }
+                keyRoute.size += route.getValue().size();
+                keyRoute.resolved = null;
+                countKeyedListeners(route.getValue(), 1);
+            }
+        }
+    }
+
+    private void removeListeners(List<DynamicMethodProxyListener<E>> instanceListeners) {
+        for (Map.Entry<Object, List<DynamicMethodProxyListener<E>>> route : groupBySubscriptionKey(instanceListeners).entrySet()) {
+            if (route.getKey() == null) {
+                removeFromTables(eventToListenerMap, route.getValue());
+                invalidateResolvedListeners();
+            } else {
+                final KeyRoute<E> keyRoute = keyRoutes.get(route.getKey());
+                if (keyRoute != null) {
+                    removeFromTables(keyRoute.tables, route.getValue());
+                    keyRoute.resolved = null;
+                    if ((keyRoute.size -= route.getValue().size()) <= 0) keyRoutes.remove(route.getKey());
+                    countKeyedListeners(route.getValue(), -1);
+                }
+            }
+        }
+    }
+
+    private static <E> void removeFromTables(Map<Class<? extends E>, ListenerTable<E>> tables, List<DynamicMethodProxyListener<E>> listeners) {
+        for (Map.Entry<Class<? extends E>, List<DynamicMethodProxyListener<E>>> entry : groupByEventType(listeners).entrySet()) {
+            final ListenerTable<E> activeListeners = tables.get(entry.getKey());
+            if (activeListeners != null) {
+                activeListeners.removeAll(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes the listeners of every weakly registered container that has been collected since the last purge
+     * <p>
+     * Purges run during registration changes and, whenever a collected container is pending, during lookups. Checking
+     * for pending containers does not lock, so lookups only synchronize when there is something to remove.
+     */
+    private void purgeCollectedContainers() {
+        if (collectedContainers == null) return;
+        Reference<?> collected = collectedContainers.poll();
+        if (collected == null) return;
+        synchronized (registrationLock) {
+            for (; collected != null; collected = collectedContainers.poll()) {
+                final List<DynamicMethodProxyListener<E>> instanceListeners = registeredListeners.remove(collected);
+                if (instanceListeners != null) {
+                    removeListeners(instanceListeners);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<Iterable<Listener<Method, E>>> findListeners(E event) {
+        purgeCollectedContainers();
+        return resolve(event).asLookupResult();
+    }
+
+    @Override
+    public Listener<Method, E>[] findListenerArray(E event) {
+        purgeCollectedContainers();
+        return resolve(event).listeners();
+    }
+
+    /**
+     * Checks the listeners which are not keyed through the same cache as dispatch, and only visits the routes of keyed
+     * listeners when there are no others
+     */
+    @Override
+    public boolean hasListeners(Class<? extends E> eventClass) {
+        purgeCollectedContainers();
+        if (resolveListeners(eventClass).listeners().length > 0) return true;
+        final Boolean keyed = keyedListenerPresence.get(eventClass);
+        return (keyed != null ? keyed : resolveKeyedListenerPresence(eventClass));
+    }
+
+    /**
+     * Checks whether any keyed listener, regardless of its key, listens to an event class or one of its supertypes
+     */
+    private boolean resolveKeyedListenerPresence(Class<?> eventClass) {
+        synchronized (registrationLock) {    //resolving under the lock keeps a racing registration from being cached over
+            boolean present = false;
+            if (!keyedListenerCounts.isEmpty()) {
+                for (Class<?> type : collectEventHierarchy(eventClass)) {
+                    if (keyedListenerCounts.containsKey(type)) {
+                        present = true;
+                        break;
+                    }
+                }
+            }
+            keyedListenerPresence.put(eventClass, present);
+            return present;
+        }
+    }
+
+    private void countKeyedListeners(List<DynamicMethodProxyListener<E>> listeners, int sign) {
+        boolean presenceChanged = false;
+        for (Map.Entry<Class<? extends E>, List<DynamicMethodProxyListener<E>>> entry : groupByEventType(listeners).entrySet()) {
+            final int count = keyedListenerCounts.getOrDefault(entry.getKey(), 0) + sign * entry.getValue().size();
+            if (count > 0) {
+                presenceChanged |= (keyedListenerCounts.put(entry.getKey(), count) == null);
+            } else {
+                presenceChanged |= (keyedListenerCounts.remove(entry.getKey()) != null);
+            }
+        }
+        if (presenceChanged) keyedListenerPresence.clear();
+    }
+
+    @Override
+    public Listener<Method, E>[] findContainerListeners(C container, E event) {
+        final List<DynamicMethodProxyListener<E>> instanceListeners;
+        synchronized (registrationLock) {
+            instanceListeners = registeredListeners.get(collectedContainers != null ? new ContainerReference(container, null) : container);
+        }
+        if (instanceListeners == null) return ListenerSnapshot.<E>empty().listeners();
+        final Object routingKey = (event instanceof KeyedEvent ? ((KeyedEvent) event).getRoutingKey() : null);
+        final List<DynamicMethodProxyListener<E>> matching = new ArrayList<>();
+        for (DynamicMethodProxyListener<E> listener : instanceListeners) {
+            final Object subscriptionKey = listener.getSubscriptionKey();
+            if (listener.getEventType().isInstance(event) && (subscriptionKey == null || subscriptionKey.equals(routingKey))) {
+                matching.add(listener);
+            }
+        }
+        matching.sort(ORDERING);
+        return matching.toArray(ListenerSnapshot.<E>empty().listeners());
+    }
+
+    private ListenerSnapshot<E> resolve(E event) {
+        if (event instanceof KeyedEvent) {
+            final Object key = ((KeyedEvent) event).getRoutingKey();
+            final KeyRoute<E> route = (key != null ? keyRoutes.get(key) : null);
+            if (route != null) return resolveRoute(route, event.getClass());
+        }
+        return resolveListeners(event.getClass());
+    }
+
+    /**
+     * Resolves the listeners of an event class for a single routing key, merging the keyed listeners of the route with the
+     * listeners which are not keyed
+     * <p>
+     * Each route caches its own resolutions. They are discarded when the route changes, and whenever the listeners which
+     * are not keyed change, detected through a generation counter so that such a change need not visit every route.
+     */
+    private ListenerSnapshot<E> resolveRoute(KeyRoute<E> route, Class<?> eventClass) {
+        final long generation = unkeyedGeneration;
+        ResolvedRoute<E> resolvedRoute = route.resolved;
+        if (resolvedRoute == null || resolvedRoute.generation != generation) {
+            route.resolved = resolvedRoute = new ResolvedRoute<>(generation);
+        }
+        ListenerSnapshot<E> resolved = resolvedRoute.snapshots.get(eventClass);
+        if (resolved == null) {
+            final List<DynamicMethodProxyListener<E>> merged = new ArrayList<>();
+            Collections.addAll(merged, resolveListeners(eventClass).listeners());
+            collectHierarchyListeners(eventClass, route.tables, merged);
+            merged.sort(ORDERING);
+            final ListenerSnapshot<E> computed = ListenerSnapshot.of(merged.toArray(ListenerSnapshot.<E>empty().listeners()));
+            resolved = resolvedRoute.snapshots.putIfAbsent(eventClass, computed);
+            if (resolved == null) resolved = computed;
+        }
+        return resolved;
+    }
+
+    private ListenerSnapshot<E> resolveListeners(Class<?> eventClass) {
+        if (eventIds != null) return resolveIndexedListeners(eventClass);
+        final Map<Class<?>, ListenerSnapshot<E>> cache = resolvedListenerCache;
+        ListenerSnapshot<E> resolved = cache.get(eventClass);
+        if (resolved == null) {
+            //a resolution racing with a registration change lands in the discarded cache, so stale entries never survive
+            final ListenerSnapshot<E> computed = mergeHierarchyListeners(eventClass);
+            resolved = cache.putIfAbsent(eventClass, computed);
+            if (resolved == null) resolved = computed;
+        }
+        return resolved;
+    }
+
+    private ListenerSnapshot<E> resolveIndexedListeners(Class<?> eventClass) {
+        final int id = eventIds.get(eventClass);
+        final ListenerSnapshot<E>[] cache = indexedListenerCache;
+        if (id < cache.length && cache[id] != null) {
+            return cache[id];
+        }
+        final ListenerSnapshot<E> computed = mergeHierarchyListeners(eventClass);
+        if (id < cache.length) {
+            cache[id] = computed;    //snapshots are safely published through their final fields, a stale store lands in a discarded array
+        } else {
+            final ListenerSnapshot<E>[] grown = Arrays.copyOf(cache, Integer.highestOneBit(id) << 1);
+            grown[id] = computed;
+            INDEXED_CACHE_UPDATER.compareAndSet(this, cache, grown);    //losing to an invalidation or another growth only drops this entry
+        }
+        return computed;
+    }
+
+    private ListenerSnapshot<E> mergeHierarchyListeners(Class<?> eventClass) {
+        final List<DynamicMethodProxyListener<E>> merged = new ArrayList<>();
+        collectHierarchyListeners(eventClass, eventToListenerMap, merged);
+        merged.sort(ORDERING);
+        return ListenerSnapshot.of(merged.toArray(ListenerSnapshot.<E>empty().listeners()));
+    }
+
+    private void collectHierarchyListeners(Class<?> eventClass, Map<Class<? extends E>, ListenerTable<E>> tables, List<DynamicMethodProxyListener<E>> collected) {
+        for (Class<?> type : collectEventHierarchy(eventClass)) {
+            final ListenerTable<E> table = tables.get(type);
+            if (table != null) {
+                Collections.addAll(collected, table.snapshot.listeners());
+            }
+        }
+    }
+
+    private Set<Class<?>> collectEventHierarchy(Class<?> eventClass) {
+        final Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(eventClass);
+        while (!pending.isEmpty()) {
+            final Class<?> type = pending.poll();
+            if (eventType.isAssignableFrom(type) && hierarchy.add(type)) {
+                if (type.getSuperclass() != null) pending.add(type.getSuperclass());
+                Collections.addAll(pending, type.getInterfaces());
+            }
+        }
+        return hierarchy;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void invalidateResolvedListeners() {
+        if (eventIds != null) {
+            indexedListenerCache = new ListenerSnapshot[indexedListenerCache.length];
+        } else {
+            resolvedListenerCache = new ConcurrentHashMap<>();
+        }
+        unkeyedGeneration++;    //only ever written under the registration lock, after the cache it guards has been replaced
+    }
+
+    private List<DynamicMethodProxyListener<E>> getCachedInstanceListeners(C container) {
+        //cached listeners refer to their container weakly, so the cache never keeps the container it is keyed by alive
+        return instanceListenerCache.computeIfAbsent(container, this::getInstanceListeners);
+    }
+
+    private List<DynamicMethodProxyListener<E>> getInstanceListeners(C p) {
+        final List<DynamicMethodProxyListener<E>> listeners = new ArrayList<>();
+        final ContainerReference reference = (collectedContainers != null || instanceListenerCache != null ? new ContainerReference(p, collectedContainers) : null);
+        for (ReactiveMethod method : ReactiveMethod.of(p.getClass())) {    //the class scan is shared, only the receiver is bound here
+            if (eventType.isAssignableFrom(method.getEventType())) {
+                final Class<? extends E> listenedType = method.getEventType().asSubclass(eventType);
+                final Object subscriptionKey = (method.isKeyed() ? getSubscriptionKey(p, method) : null);
+                listeners.add(reference != null
+                        ? new DynamicMethodProxyListener<>(reference, method, listenedType, subscriptionKey, listenerSequence.getAndIncrement())
+                        : new DynamicMethodProxyListener<>(p, method, listenedType, subscriptionKey, listenerSequence.getAndIncrement()));
+            }
+        }
+        return listeners;
+    }
+
+    private static Object getSubscriptionKey(Object container, ReactiveMethod method) {
+        if (!(container instanceof KeyedSubscriber)) {
+            throw new IllegalArgumentException("Keyed listener method \"" + method.getMethod().getName() + "\" requires its container to implement KeyedSubscriber");
+        }
+        final Object subscriptionKey = ((KeyedSubscriber) container).getSubscriptionKey();
+        if (subscriptionKey == null) {
+            throw new IllegalArgumentException("Subscription key of container for keyed listener method \"" + method.getMethod().getName() + "\" cannot be null");
+        }
+        return subscriptionKey;
+    }
+
+    private static <E> Map<Object, List<DynamicMethodProxyListener<E>>> groupBySubscriptionKey(List<DynamicMethodProxyListener<E>> listeners) {
+        final Map<Object, List<DynamicMethodProxyListener<E>>> grouped = new HashMap<>();    //listeners which are not keyed are grouped under null
+        for (DynamicMethodProxyListener<E> listener : listeners) {
+            grouped.computeIfAbsent(listener.getSubscriptionKey(), k -> new ArrayList<>()).add(listener);
+        }
+        return grouped;
+    }
+
+    private static <E> Map<Class<? extends E>, List<DynamicMethodProxyListener<E>>> groupByEventType(Collection<DynamicMethodProxyListener<E>> listeners) {
+        final Map<Class<? extends E>, List<DynamicMethodProxyListener<E>>> grouped = new HashMap<>();
+        for (DynamicMethodProxyListener<E> listener : listeners) {
+            grouped.computeIfAbsent(listener.getEventType(), t -> new ArrayList<>()).add(listener);
+        }
+        return grouped;
+    }
+
+    /**
+     * The listeners registered for a single event type, published to dispatching threads as an immutable snapshot
+     * <p>
+     * All mutation happens under the registration lock of the owning registry. Each change copies the current snapshot,
+     * so that dispatch never observes a partially updated listener array and never has to lock.
+     */
+    private static final class ListenerTable<E> {
+        volatile ListenerSnapshot<E> snapshot = ListenerSnapshot.empty();
+
+        boolean addAll(List<DynamicMethodProxyListener<E>> additions) {
+            DynamicMethodProxyListener<E>[] listeners = snapshot.listeners();
+            boolean changed = false;
+            for (DynamicMethodProxyListener<E> listener : additions) {
+                final int index = Arrays.binarySearch(listeners, listener, ORDERING);
+                if (index < 0) {    //priority and sequence together identify a listener, so a hit means it is already present
+                    final int insertionPoint = -(index + 1);
+                    final DynamicMethodProxyListener<E>[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+                    System.arraycopy(listeners, insertionPoint, grown, insertionPoint + 1, listeners.length - insertionPoint);
+                    grown[insertionPoint] = listener;
+                    listeners = grown;
+                    changed = true;
+                }
+            }
+            if (changed) snapshot = ListenerSnapshot.of(listeners);
+            return changed;
+        }
+
+        boolean removeAll(List<DynamicMethodProxyListener<E>> removals) {
+            DynamicMethodProxyListener<E>[] listeners = snapshot.listeners();
+            boolean changed = false;
+            for (DynamicMethodProxyListener<E> listener : removals) {
+                final int index = Arrays.binarySearch(listeners, listener, ORDERING);
+                if (index >= 0) {    //sequences are unique per registry, so the match is this very listener
+                    final DynamicMethodProxyListener<E>[] shrunk = Arrays.copyOf(listeners, listeners.length - 1);
+                    System.arraycopy(listeners, index + 1, shrunk, index, shrunk.length - index);
+                    listeners = shrunk;
+                    changed = true;
+                }
+            }
+            if (changed) snapshot = ListenerSnapshot.of(listeners);
+            return changed;
+        }
+    }
+
+    /**
+     * The keyed listeners sharing a single subscription key, along with their resolutions
+     */
+    private static final class KeyRoute<E> {
+        final Map<Class<? extends E>, ListenerTable<E>> tables = new ConcurrentHashMap<>();
+
+        int size;    //guarded by the registration lock
+
+        volatile ResolvedRoute<E> resolved;
+    }
+
+    private static final class ResolvedRoute<E> {
+        final long generation;
+
+        final Map<Class<?>, ListenerSnapshot<E>> snapshots = new ConcurrentHashMap<>();
+
+        ResolvedRoute(long generation) {
+            this.generation = generation;
+        }
+    }
+}
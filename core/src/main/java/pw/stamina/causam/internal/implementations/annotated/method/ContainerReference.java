@@ -0,0 +1,54 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A weak reference to a registered container, compared by the identity of its referent
+ * <p>
+ * A reference whose container has been collected is only equal to itself, which lets the registry remove it from its
+ * index once it has been enqueued.
+ *
+ * @author Foundry
+ */
+final class ContainerReference extends WeakReference<Object> {
+
+    private final int hash;
+
+    ContainerReference(Object container, ReferenceQueue<Object> queue) {
+        super(container, queue);
+        this.hash = System.identityHashCode(container);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ContainerReference)) return false;
+        final Object container = get();
+        return container != null && container == ((ContainerReference) o).get();
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
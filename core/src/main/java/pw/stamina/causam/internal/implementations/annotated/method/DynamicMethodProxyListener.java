@@ -0,0 +1,120 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.lang.reflect.Method;
+import java.util.function.Predicate;
+
+/**
+ * @author Foundry
+ */
+public class DynamicMethodProxyListener<E> implements Listener<Method, E> {
+
+    private final Object methodParent;
+
+    private final ContainerReference parentReference;
+
+    private final Method backingMethod;
+
+    private final MethodInvoker dynamicInvoker;
+
+    private final Class<? extends E> event;
+
+    private final Order priority;
+
+    private final Predicate<Object> filter;
+
+    private final Object subscriptionKey;
+
+    private final long sequence;
+
+    DynamicMethodProxyListener(Object methodParent, ReactiveMethod reactiveMethod, Class<? extends E> event, Object subscriptionKey, long sequence) {
+        this(methodParent, null, reactiveMethod, event, subscriptionKey, sequence);
+    }
+
+    DynamicMethodProxyListener(ContainerReference parentReference, ReactiveMethod reactiveMethod, Class<? extends E> event, Object subscriptionKey, long sequence) {
+        this(null, parentReference, reactiveMethod, event, subscriptionKey, sequence);
+    }
+
+    private DynamicMethodProxyListener(Object methodParent, ContainerReference parentReference, ReactiveMethod reactiveMethod, Class<? extends E> event,
+                                       Object subscriptionKey, long sequence) {
+        this.methodParent = methodParent;
+        this.parentReference = parentReference;
+        this.backingMethod = reactiveMethod.getMethod();
+        this.dynamicInvoker = reactiveMethod.getInvoker();
+        this.priority = reactiveMethod.getPriority();
+        this.filter = reactiveMethod.getFilter();
+        this.event = event;
+        this.subscriptionKey = subscriptionKey;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void invoke(E event) throws Throwable {
+        final Object parent = (parentReference != null ? parentReference.get() : methodParent);
+        if (parent != null) {    //a collected container is skipped until the registry purges its listeners
+            dynamicInvoker.invoke(parent, event);
+        }
+    }
+
+    @Override
+    public Method getListenerObject() {
+        return backingMethod;
+    }
+
+    @Override
+    public Class<? extends E> getEventType() {
+        return event;
+    }
+
+    @Override
+    public Order getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Predicate<Object> getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the key which the routing key of an event must equal for this listener to receive it, or null if this listener
+     * is not keyed
+     */
+    public Object getSubscriptionKey() {
+        return subscriptionKey;
+    }
+
+    /**
+     * Gets the weak reference through which this listener reaches its container, or null if the container is held strongly
+     */
+    ContainerReference getParentReference() {
+        return parentReference;
+    }
+
+    /**
+     * Gets the sequence number assigned to this listener when it was bound, used to order listeners of equal priority
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+/**
+ * A set of listener invokers generated at compile time for the {@link pw.stamina.causam.internal.implementations.annotated.Reactive Reactive}
+ * methods of a single container class
+ * <p>
+ * Implementations are produced by the Causam annotation processor, named after the binary name of their container class
+ * with a {@value #CLASS_SUFFIX} suffix and placed in the same package. When such a class is present, the registry uses its
+ * invokers in place of generating them at runtime. Methods for which no invoker was generated, such as private methods,
+ * still fall back to runtime generation.
+ *
+ * @author Foundry
+ */
+public interface GeneratedInvokers {
+    String CLASS_SUFFIX = "$$CausamInvokers";
+
+    /**
+     * Gets the generated invoker for a reactive method, or null if none was generated for it
+     *
+     * @param methodName the name of the reactive method
+     * @param eventType the type of the single parameter of the reactive method
+     * @return the invoker for the method, or null
+     */
+    MethodInvoker getInvoker(String methodName, Class<?> eventType);
+}
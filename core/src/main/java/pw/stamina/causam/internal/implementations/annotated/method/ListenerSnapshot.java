@@ -0,0 +1,79 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import pw.stamina.causam.api.Listener;
+
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, already ordered array of the listeners registered for an event type
+ * <p>
+ * Snapshots are never modified once published; registration changes build a replacement instead. This allows dispatch
+ * to walk the listeners by index without any locking, and lets the lookup result be created once per snapshot rather
+ * than once per dispatch.
+ *
+ * @author Foundry
+ */
+final class ListenerSnapshot<E> extends AbstractList<Listener<Method, E>> implements RandomAccess {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ListenerSnapshot<?> EMPTY = new ListenerSnapshot<>(new DynamicMethodProxyListener[0]);
+
+    private final DynamicMethodProxyListener<E>[] listeners;
+
+    private final Optional<Iterable<Listener<Method, E>>> lookupResult;
+
+    private ListenerSnapshot(DynamicMethodProxyListener<E>[] listeners) {
+        this.listeners = listeners;
+        this.lookupResult = (listeners.length > 0 ? Optional.of(this) : Optional.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> ListenerSnapshot<E> of(DynamicMethodProxyListener<E>[] listeners) {
+        return listeners.length > 0 ? new ListenerSnapshot<>(listeners) : (ListenerSnapshot<E>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> ListenerSnapshot<E> empty() {
+        return (ListenerSnapshot<E>) EMPTY;
+    }
+
+    DynamicMethodProxyListener<E>[] listeners() {
+        return listeners;
+    }
+
+    Optional<Iterable<Listener<Method, E>>> asLookupResult() {
+        return lookupResult;
+    }
+
+    @Override
+    public DynamicMethodProxyListener<E> get(int index) {
+        return listeners[index];
+    }
+
+    @Override
+    public int size() {
+        return listeners.length;
+    }
+}
@@ -16,14 +16,15 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
-package pw.stamina.causam.api.dispatch;
 
-import pw.stamina.causam.api.exception.ExceptionHandler;
-import pw.stamina.causam.api.Listener;
+package pw.stamina.causam.internal.implementations.annotated.method;
 
 /**
+ * An invoker for a listener method which is not bound to any particular container instance
+ *
  * @author Foundry
  */
-public interface Dispatcher<L, E> {
-    void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers);
+@FunctionalInterface
+public interface MethodInvoker {
+    void invoke(Object container, Object event) throws Throwable;
 }
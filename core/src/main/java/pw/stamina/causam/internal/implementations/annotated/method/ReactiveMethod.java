@@ -0,0 +1,181 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import pw.stamina.causam.internal.implementations.annotated.Filtered;
+import pw.stamina.causam.internal.implementations.annotated.Keyed;
+import pw.stamina.causam.internal.implementations.annotated.Ordered;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.annotated.method.transformer.ReflectionMethodTransformer;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The metadata of a single {@link Reactive} method, resolved once per container class and shared by all of its instances
+ * <p>
+ * Besides the method itself, this holds the event type, the resolved priority, filter and keying, and an invoker which is not bound to any
+ * particular container. Binding a listener to another instance of an already scanned class therefore involves no reflection
+ * and no lambda generation. Invokers are taken from the {@link GeneratedInvokers} of the container class when it was
+ * compiled with the annotation processor, and are only generated at runtime otherwise.
+ *
+ * @author Foundry
+ */
+final class ReactiveMethod {
+
+    private static final ClassValue<ReactiveMethod[]> CLASS_METADATA = new ClassValue<ReactiveMethod[]>() {
+        @Override
+        protected ReactiveMethod[] computeValue(Class<?> type) {
+            final GeneratedInvokers generatedInvokers = findGeneratedInvokers(type);
+            return Arrays.stream(type.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Reactive.class))
+                    .filter(method -> method.getParameterCount() == 1)
+                    .map(method -> new ReactiveMethod(type, method, generatedInvokers))
+                    .toArray(ReactiveMethod[]::new);
+        }
+    };
+
+    private static final ClassValue<SharedFilter> FILTERS = new ClassValue<SharedFilter>() {
+        @Override
+        protected SharedFilter computeValue(Class<?> type) {
+            return new SharedFilter(type);
+        }
+    };
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Method method;
+
+    private final Class<?> eventType;
+
+    private final Order priority;
+
+    private final MethodInvoker invoker;
+
+    private final SharedFilter filter;
+
+    private final boolean keyed;
+
+    private ReactiveMethod(Class<?> containerType, Method method, GeneratedInvokers generatedInvokers) {
+        this.method = method;
+        this.eventType = method.getParameterTypes()[0];
+        final Ordered ordering = method.getDeclaredAnnotation(Ordered.class);
+        this.priority = (ordering != null ? ordering.value() : Order.DEFAULT);
+        final Filtered filtering = method.getDeclaredAnnotation(Filtered.class);
+        this.filter = (filtering != null ? FILTERS.get(filtering.value()) : null);
+        this.keyed = method.isAnnotationPresent(Keyed.class);
+        final MethodInvoker generatedInvoker = (generatedInvokers != null ? generatedInvokers.getInvoker(method.getName(), eventType) : null);
+        this.invoker = (generatedInvoker != null ? generatedInvoker : transformInvoker(containerType, method));
+    }
+
+    static ReactiveMethod[] of(Class<?> containerType) {
+        return CLASS_METADATA.get(containerType);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    Class<?> getEventType() {
+        return eventType;
+    }
+
+    Order getPriority() {
+        return priority;
+    }
+
+    MethodInvoker getInvoker() {
+        return invoker;
+    }
+
+    boolean isKeyed() {
+        return keyed;
+    }
+
+    Predicate<Object> getFilter() {
+        return filter != null ? filter.predicate : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MethodInvoker transformInvoker(Class<?> containerType, Method method) {
+        if (!ReflectionMethodTransformer.hasPrivilegedLookup()) return handleInvoker(method);
+        if (Modifier.isStatic(method.getModifiers())) {    //static methods ignore the container they are registered through
+            final Consumer<Object> staticInvoker = ReflectionMethodTransformer.transform(Consumer.class, containerType, null, method);
+            return (container, event) -> staticInvoker.accept(event);
+        }
+        return ReflectionMethodTransformer.transformUnbound(MethodInvoker.class, containerType, method);
+    }
+
+    /**
+     * Creates an invoker calling a method through a method handle, for when the lambda metafactory cannot be used because
+     * no privileged lookup object was acquired
+     */
+    static MethodInvoker handleInvoker(Method method) {
+        MethodHandle handle = ReflectionMethodTransformer.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {    //static methods ignore the container they are registered through
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        final MethodHandle invoker = handle.asType(INVOKER_TYPE);
+        return (container, event) -> {
+            invoker.invokeExact(container, event);    //a statement, so that the call site is typed as returning void
+        };
+    }
+
+    private static GeneratedInvokers findGeneratedInvokers(Class<?> containerType) {
+        final Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(containerType.getName() + GeneratedInvokers.CLASS_SUFFIX, true, containerType.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;    //the container was not compiled with the annotation processor
+        }
+        if (!GeneratedInvokers.class.isAssignableFrom(generatedClass)) return null;
+        try {
+            return (GeneratedInvokers) generatedClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The single instance of a filter class, shared by every method filtered through it
+     */
+    private static final class SharedFilter {
+        final Predicate<Object> predicate;
+
+        @SuppressWarnings("unchecked")
+        SharedFilter(Class<?> filterType) {
+            try {
+                final Constructor<?> constructor = filterType.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                this.predicate = (Predicate<Object>) constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("Unable to instantiate filter " + filterType.getName(), e);
+            }
+        }
+    }
+}
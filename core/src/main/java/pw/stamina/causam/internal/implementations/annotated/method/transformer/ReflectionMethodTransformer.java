@@ -20,12 +20,14 @@ package pw.stamina.causam.internal.implementations.annotated.method.transformer;
 
 import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Optional;
 
 /**
  * A utility class allowing for the programmatic conversion of class methods to SAM interface implementations
@@ -33,6 +35,8 @@ import java.util.Arrays;
  * ReflectionMethodTransformer provides methods for converting previously obtained reflection {@link Method method} objects through
  * the {@link ReflectionMethodTransformer#transform(Class, Class, Object, Method, Object...) direct transformer}, as well as
  * method objects discovered via their String name through the {@link ReflectionMethodTransformer#transform(Class, Class, Object, String, Class[]) lookup transformer}.
+ * Instance methods may also be converted without a receiver through the {@link ReflectionMethodTransformer#transformUnbound(Class, Class, Method) unbound transformer},
+ * producing a single invoker that can be shared by every instance of the parent class.
  * <p>
  * Both the direct and lookup transformers support passing captured arguments as a part of the conversion process through either their default or overloaded method variants.
  * Captured arguments serve as constants references for invocation, meaning that the parameters present in the conversion target type SAM must be compatible
@@ -44,8 +48,11 @@ import java.util.Arrays;
  * as internally all references to that type will be of type {@link Object Object}, to which any argument can be passed.
  * <p>
  * When this class is initialized, it will attempt to acquire a privileged {@link MethodHandles.Lookup MethodHandle Lookup} object with which
- * private, protected, and package-local methods can be converted. If this conversion fails, the transformer will issue a warning that lookups will be limited to
- * publicly accessible methods.
+ * private, protected, and package-local methods can be converted. If this fails, as it does on modern JDKs under module encapsulation, the
+ * {@link LambdaMetafactory} cannot be used at all, and the transformer falls back to {@link MethodHandleProxies method handle proxies}.
+ * These are slower to invoke, and can only reach methods which are public or can be made accessible through reflection. The reason
+ * for the fallback is kept as the {@link #getPrivilegedLookupFailure() privileged lookup failure}, which event buses report to
+ * their exception handlers.
  *
  * @author Foundry
  */
@@ -54,6 +61,8 @@ public final class ReflectionMethodTransformer {
 
     private static final boolean DO_PRIVILEGED_LOOKUPS;
 
+    private static final Throwable PRIVILEGED_LOOKUP_FAILURE;
+
     private ReflectionMethodTransformer() {}
 
     /**
@@ -77,6 +86,7 @@ public final class ReflectionMethodTransformer {
     public static <T, K> T transform(Class<T> conversionTarget, Class<? extends K> parentClass, K parentInstance, Method backingMethod, Object... capturedState) {
         if (parentClass == null) throw new NullPointerException("parent class provided cannot be null");
         validateConversion(conversionTarget, backingMethod, capturedState);    //before we go any further, check certain invariants
+        if (!DO_PRIVILEGED_LOOKUPS) return transformProxied(conversionTarget, parentInstance, backingMethod, capturedState);
         try {
             final MethodHandles.Lookup caller = LOOKUP.in(parentClass);   //transform a new lookup in our parent class
             MethodHandle implMethod; Method lambdaMethod = null;
@@ -89,28 +99,7 @@ public final class ReflectionMethodTransformer {
             }
 
             final int methodModifiers = backingMethod.getModifiers();
-            if (Modifier.isPrivate(methodModifiers)) {  //begin resolving the MethodHandle based on its protection level
-                if (DO_PRIVILEGED_LOOKUPS) {    //if we have access to a privileged lookup object
-                    //private static methods don't use invokespecial bytecode, so account for that possibility
-                    implMethod = Modifier.isStatic(methodModifiers) ? caller.unreflect(backingMethod) : caller.unreflectSpecial(backingMethod, parentClass);
-                } else {
-                    throw new IllegalHandleLookupException("Tried to do lookup on private method " + backingMethod.getName() + ", but an access error occurred");
-                }
-            } else if (Modifier.isProtected(methodModifiers)) {
-                if (DO_PRIVILEGED_LOOKUPS) {
-                    implMethod = caller.unreflect(backingMethod);
-                } else {
-                    throw new IllegalHandleLookupException("Tried to do lookup on protected method " + backingMethod.getName() + ", but an access error occurred");
-                }
-            } else if (Modifier.isPublic(methodModifiers)) {
-                implMethod = caller.unreflect(backingMethod);
-            } else {    //no explicit access modifier; must be package-local
-                if (DO_PRIVILEGED_LOOKUPS) {
-                    implMethod = caller.unreflect(backingMethod);
-                } else {
-                    throw new IllegalHandleLookupException("Tried to do lookup on package-local method " + backingMethod.getName() + ", but an access error occurred");
-                }
-            }
+            implMethod = unreflectImplementation(caller, parentClass, backingMethod);
 
             if (implMethod != null && lambdaMethod != null) {
                 final Class<?>[] erasedBackingParameters = new Class[lambdaMethod.getParameterCount()], capturedStateClasses = flattenObjectsToClasses(capturedState);
@@ -142,6 +131,76 @@ public final class ReflectionMethodTransformer {
         }
     }
 
+    /**
+     * Attempts to generate an instance of the conversion target type serving as a dynamic invoker for a reflection method, without
+     * binding the invoker to any instance of the method's parent class
+     * <p>
+     * For instance methods, the first parameter of the SAM of the conversion target receives the object on which the backing method
+     * is invoked, and the remaining parameters are passed on to the backing method. The resulting object can therefore be created once
+     * per method and shared by every instance of the parent class. Static methods have no receiver and must be converted through the
+     * {@link ReflectionMethodTransformer#transform(Class, Class, Object, Method, Object...) direct transformer} instead.
+     *
+     * @param conversionTarget the conversion target to which the backing method should be converted
+     * @param parentClass the class type of the parent of the converted method
+     * @param backingMethod the method to be converted to the conversion target type
+     * @param <T> the type of the SAM object to be created
+     * @return an object of type T with a single method accepting the receiver followed by all arguments of the converted method
+     * @throws IllegalHandleLookupException if the required method handle cannot be looked up due to an access violation
+     * @throws MethodTransformationException if there are incompatibilities between the conversion target and the converted method
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T transformUnbound(Class<T> conversionTarget, Class<?> parentClass, Method backingMethod) {
+        if (parentClass == null) throw new NullPointerException("parent class provided cannot be null");
+        if (backingMethod == null) throw new MethodTransformationException("Method equivalent cannot be null");
+        if (Modifier.isStatic(backingMethod.getModifiers())) {
+            throw new MethodTransformationException("Static method " + backingMethod.getName() + " has no receiver and cannot be transformed unbound");
+        }
+        if (conversionTarget == null || !conversionTarget.isInterface()) {
+            throw new MethodTransformationException("Conversion target " + conversionTarget + " is not an interface and cannot be used as a lambda target");
+        }
+
+        Method lambdaMethod = null;
+        for (Method method : conversionTarget.getMethods()) {
+            if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                if (lambdaMethod != null) {
+                    throw new MethodTransformationException("Interface " + conversionTarget.getSimpleName()
+                            + " has more than one non-default method and cannot be used as a lambda target");
+                }
+                lambdaMethod = method;
+            }
+        }
+        if (lambdaMethod == null) {
+            throw new MethodTransformationException("Interface " + conversionTarget.getSimpleName() + " does not have any non-default methods");
+        } else if (lambdaMethod.getParameterCount() != backingMethod.getParameterCount() + 1) {  //one extra parameter for the receiver
+            throw new MethodTransformationException("Incompatible methods: backing method " + backingMethod.getName()
+                    + " takes " + backingMethod.getParameterCount() + " arguments plus a receiver while interface method " + lambdaMethod.getName()
+                    + " takes " + lambdaMethod.getParameterCount() + " arguments");
+        } else if (lambdaMethod.getReturnType() != void.class && !lambdaMethod.getReturnType().isAssignableFrom(backingMethod.getReturnType())) {
+            throw new MethodTransformationException("Incompatible methods: backing method " + backingMethod.getName()
+                    + " returns " + backingMethod.getReturnType()
+                    + " while interface method " + lambdaMethod.getName()
+                    + " returns " + lambdaMethod.getReturnType());
+        }
+
+        if (!DO_PRIVILEGED_LOOKUPS) return transformUnboundProxied(conversionTarget, backingMethod);
+        try {
+            final MethodHandles.Lookup caller = LOOKUP.in(parentClass);
+            final MethodHandle implMethod = unreflectImplementation(caller, parentClass, backingMethod);
+            final Class<?>[] instantiatedParameters = new Class<?>[backingMethod.getParameterCount() + 1];
+            instantiatedParameters[0] = parentClass;    //the receiver leads the instantiated signature
+            System.arraycopy(backingMethod.getParameterTypes(), 0, instantiatedParameters, 1, backingMethod.getParameterCount());
+            final Class<?> instantiatedReturnType = lambdaMethod.getReturnType() == void.class ? void.class : backingMethod.getReturnType();
+
+            return (T) LambdaMetafactory.metafactory(caller, lambdaMethod.getName(), MethodType.methodType(conversionTarget),
+                    MethodType.methodType(lambdaMethod.getReturnType(), lambdaMethod.getParameterTypes()), implMethod,
+                    MethodType.methodType(instantiatedReturnType, instantiatedParameters)).getTarget().invoke();
+        } catch (MethodTransformationException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MethodTransformationException("Exception creating unbound dynamic invoker for method \"" + backingMethod.getName() + "\":" + System.lineSeparator() + e, e);
+        }
+    }
+
     /**
      * Attempts to generated an instance of the conversion target type serving as an dynamic invoker for an unresolved method supplier with captured state
      * <p>
@@ -197,6 +256,102 @@ public final class ReflectionMethodTransformer {
         return transform(conversionTarget, parentClass, parentInstance, methodEquivalent, methodParameters, new Object[0]);
     }
 
+    /**
+     * Checks whether the privileged lookup object was acquired, without which methods are transformed into slower
+     * {@link MethodHandleProxies method handle proxies} rather than through the {@link LambdaMetafactory}
+     */
+    public static boolean hasPrivilegedLookup() {
+        return DO_PRIVILEGED_LOOKUPS;
+    }
+
+    /**
+     * Gets the reason the privileged lookup object could not be acquired, if it could not
+     */
+    public static Optional<Throwable> getPrivilegedLookupFailure() {
+        return Optional.ofNullable(PRIVILEGED_LOOKUP_FAILURE);
+    }
+
+    /**
+     * Looks up a direct method handle for a method, through the privileged lookup object if it was acquired, and otherwise
+     * through the public lookup object, making the method accessible first if it is not public
+     *
+     * @param method the method to look up
+     * @return a method handle invoking the method, taking the receiver as its first parameter unless the method is static
+     * @throws IllegalHandleLookupException if the method can neither be looked up nor made accessible
+     */
+    public static MethodHandle unreflect(Method method) {
+        try {
+            if (DO_PRIVILEGED_LOOKUPS) return LOOKUP.in(method.getDeclaringClass()).unreflect(method);
+            try {
+                return MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                method.setAccessible(true);     //an accessible method is looked up without access checks
+                return MethodHandles.publicLookup().unreflect(method);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {    //setAccessible fails on methods of encapsulated modules
+            throw new IllegalHandleLookupException("Tried to do lookup on method " + method.getName() + ", but an access error occurred");
+        }
+    }
+
+    /**
+     * Transforms a method bound to its parent instance and captured state without the {@link LambdaMetafactory}, which
+     * rejects lookup objects without private access
+     */
+    static <T> T transformProxied(Class<T> conversionTarget, Object parentInstance, Method backingMethod, Object... capturedState) {
+        MethodHandle handle = unreflect(backingMethod);
+        if (!Modifier.isStatic(backingMethod.getModifiers())) {
+            if (parentInstance == null) {
+                throw new MethodTransformationException("Instance of parent class for non-static method " + backingMethod.getName() + " cannot be null");
+            }
+            handle = handle.bindTo(parentInstance);
+        }
+        if (capturedState.length > 0) handle = MethodHandles.insertArguments(handle, 0, capturedState);
+        try {
+            return MethodHandleProxies.asInterfaceInstance(conversionTarget, handle);
+        } catch (RuntimeException e) {
+            throw new MethodTransformationException("Exception creating dynamic invoker for method \"" + backingMethod.getName() + "\":" + System.lineSeparator() + e, e);
+        }
+    }
+
+    /**
+     * Transforms a method taking its receiver as the first parameter without the {@link LambdaMetafactory}, which rejects
+     * lookup objects without private access
+     */
+    static <T> T transformUnboundProxied(Class<T> conversionTarget, Method backingMethod) {
+        final MethodHandle handle = unreflect(backingMethod);
+        try {
+            return MethodHandleProxies.asInterfaceInstance(conversionTarget, handle);
+        } catch (RuntimeException e) {
+            throw new MethodTransformationException("Exception creating unbound dynamic invoker for method \"" + backingMethod.getName() + "\":" + System.lineSeparator() + e, e);
+        }
+    }
+
+    private static MethodHandle unreflectImplementation(MethodHandles.Lookup caller, Class<?> parentClass, Method backingMethod) throws IllegalAccessException {
+        final int methodModifiers = backingMethod.getModifiers();
+        if (Modifier.isPrivate(methodModifiers)) {  //begin resolving the MethodHandle based on its protection level
+            if (DO_PRIVILEGED_LOOKUPS) {    //if we have access to a privileged lookup object
+                //private static methods don't use invokespecial bytecode, so account for that possibility
+                return Modifier.isStatic(methodModifiers) ? caller.unreflect(backingMethod) : caller.unreflectSpecial(backingMethod, parentClass);
+            } else {
+                throw new IllegalHandleLookupException("Tried to do lookup on private method " + backingMethod.getName() + ", but an access error occurred");
+            }
+        } else if (Modifier.isProtected(methodModifiers)) {
+            if (DO_PRIVILEGED_LOOKUPS) {
+                return caller.unreflect(backingMethod);
+            } else {
+                throw new IllegalHandleLookupException("Tried to do lookup on protected method " + backingMethod.getName() + ", but an access error occurred");
+            }
+        } else if (Modifier.isPublic(methodModifiers)) {
+            return caller.unreflect(backingMethod);
+        } else {    //no explicit access modifier; must be package-local
+            if (DO_PRIVILEGED_LOOKUPS) {
+                return caller.unreflect(backingMethod);
+            } else {
+                throw new IllegalHandleLookupException("Tried to do lookup on package-local method " + backingMethod.getName() + ", but an access error occurred");
+            }
+        }
+    }
+
     private static void validateConversion(Class<?> conversionTarget, Method methodEquivalent, Object... capturedState) throws MethodTransformationException {
         if (conversionTarget == null) throw new MethodTransformationException("Lambda interface cannot be null");
         if (methodEquivalent == null) throw new MethodTransformationException("Method equivalent cannot be null");
@@ -274,18 +429,21 @@ public final class ReflectionMethodTransformer {
     static {
         MethodHandles.Lookup lookupObject;
         boolean hasPrivilegedLookup;
+        Throwable lookupFailure = null;
         try {
             Field lookupImplField = MethodHandles.Lookup.class.getDeclaredField("IMPL_LOOKUP"); //try to get the trusted Lookup object
             lookupImplField.setAccessible(true);    //attempt to crack the field
             lookupObject = (MethodHandles.Lookup) lookupImplField.get(null);    //success!
             hasPrivilegedLookup = true;
-        } catch (ReflectiveOperationException e) {  //something prevented us from accessing the trusted Lookup object
-            System.err.println("(LambdaFactory) (Warning) Could not acquire privileged lookup object; lambda factory usage will be limited to public methods");
+        } catch (ReflectiveOperationException | RuntimeException e) {  //something prevented us from accessing the trusted Lookup object, such as module encapsulation
+            lookupFailure = new IllegalStateException("Could not acquire privileged lookup object; listener methods without "
+                    + "generated invokers will be invoked through slower method handles instead of generated lambdas", e);
             lookupObject = MethodHandles.lookup();  //failure, unprivileged lookups only
             hasPrivilegedLookup = false;
         }
 
         LOOKUP = lookupObject;
         DO_PRIVILEGED_LOOKUPS = hasPrivilegedLookup;
+        PRIVILEGED_LOOKUP_FAILURE = lookupFailure;
     }
 }
@@ -0,0 +1,286 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An exception handler moving the handling of listener failures off the dispatching threads
+ * <p>
+ * Failures are grouped by their source, the listener object and the exception type, on the dispatching thread. Each
+ * source may be reported a limited number of times per period, and the repeats beyond that are counted rather than
+ * reported. Reports are queued in a bounded queue and handed to the underlying handlers by a single thread, so neither
+ * a slow nor a failing handler holds up dispatch. When the queue is full, reports are dropped and
+ * {@link #getDroppedCount() counted}.
+ * <p>
+ * That thread also tells the failures of a source apart by their stack trace, which is too costly to inspect while
+ * dispatching: a failure repeating a stack trace already reported within the period is held back and counted as well.
+ * Counted repeats are carried by the {@link ExceptionContext#getOccurrences() occurrences} of the next report of their
+ * source, or of a summary reported once the period has passed.
+ *
+ * @author Foundry
+ */
+public class AsyncExceptionHandler implements ExceptionHandler {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final int DEFAULT_PERMITS = 5;
+
+    private final List<ExceptionHandler> exceptionHandlers;
+
+    private final BlockingQueue<ExceptionContext<?>> reports;
+
+    private final Map<Source, FailureGroup> groups = new ConcurrentHashMap<>();
+
+    private final Map<Signature, Duplicates> reportedSignatures = new HashMap<>();    //confined to the worker
+
+    private final int permits;
+
+    private final long periodNanos;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final ExecutorService worker;
+
+    public AsyncExceptionHandler(ExceptionHandler... exceptionHandlers) {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_PERMITS, 1, TimeUnit.SECONDS, new BasicConcurrentDispatcher.DispatchThreadFactory("exception-handling"), exceptionHandlers);
+    }
+
+    /**
+     * @param queueCapacity the number of reports which may wait to be handled before further reports are dropped
+     * @param permits       the number of times each failure signature may be reported per period
+     */
+    public AsyncExceptionHandler(int queueCapacity, int permits, long period, TimeUnit unit,
+                                 ThreadFactory threadFactory, ExceptionHandler... exceptionHandlers) {
+        if (permits < 1) throw new IllegalArgumentException("permits must be positive, was " + permits);
+        if (period <= 0) throw new IllegalArgumentException("period must be positive, was " + period);
+        if (exceptionHandlers.length == 0) throw new IllegalArgumentException("at least one exception handler must be provided");
+        this.exceptionHandlers = Arrays.asList(exceptionHandlers.clone());
+        this.reports = new ArrayBlockingQueue<>(queueCapacity);
+        this.permits = permits;
+        this.periodNanos = unit.toNanos(period);
+        this.worker = Executors.newSingleThreadExecutor(threadFactory);
+        this.worker.execute(this::drain);
+    }
+
+    @Override
+    public void handleException(ExceptionContext<?> context) {
+        final Throwable cause = context.getCause();
+        final Object listenerObject = (context.getListener() != null ? context.getListener().getListenerObject() : null);
+        final FailureGroup group = groups.computeIfAbsent(new Source(listenerObject, cause.getClass()), s -> new FailureGroup());
+
+        final long now = System.nanoTime();
+        group.latest = context;
+        group.lastOccurrence = now;
+        if (!group.tryAcquire(now, permits, periodNanos)) {
+            group.suppressed.incrementAndGet();
+            return;
+        }
+        final long occurrences = context.getOccurrences() + group.suppressed.getAndSet(0);
+        enqueue(occurrences == context.getOccurrences() ? context : withOccurrences(context, occurrences));
+    }
+
+    /**
+     * Gets the number of reports dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops handing reports to the underlying handlers, discarding those still queued
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void enqueue(ExceptionContext<?> context) {
+        if (!reports.offer(context)) dropped.add(context.getOccurrences());
+    }
+
+    private void drain() {
+        long nextSummary = System.nanoTime() + periodNanos;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final ExceptionContext<?> context = reports.poll(periodNanos, TimeUnit.NANOSECONDS);
+                final long now = System.nanoTime();
+                if (context != null) deduplicate(context, now);
+                if (now - nextSummary >= 0) {
+                    summarize(now);
+                    nextSummary = now + periodNanos;
+                }
+            }
+        } catch (InterruptedException ignored) {}    //shut down
+    }
+
+    /**
+     * Reports a failure unless its stack trace was already reported for the same source within the period, in which
+     * case it is held back until the next summary
+     */
+    private void deduplicate(ExceptionContext<?> context, long now) {
+        final Signature signature = new Signature(context);
+        final Duplicates duplicates = reportedSignatures.get(signature);
+        if (duplicates != null && now - duplicates.firstReported < periodNanos) {
+            duplicates.latest = context;
+            duplicates.held += context.getOccurrences();
+            return;
+        }
+        reportedSignatures.put(signature, new Duplicates(context, now));
+        report(context);
+    }
+
+    /**
+     * Reports the repeats which were held back during a period in which their source did not fail again, and forgets
+     * the sources and stack traces which have stopped failing
+     */
+    private void summarize(long now) {
+        groups.forEach((source, group) -> {
+            if (now - group.windowStart.get() < periodNanos) return;
+            final long suppressed = group.suppressed.getAndSet(0);
+            if (suppressed > 0) {
+                report(withOccurrences(group.latest, suppressed));
+            } else if (now - group.lastOccurrence >= 2 * periodNanos) {
+                groups.remove(source, group);
+            }
+        });
+        for (Iterator<Duplicates> iterator = reportedSignatures.values().iterator(); iterator.hasNext(); ) {
+            final Duplicates duplicates = iterator.next();
+            if (now - duplicates.firstReported < periodNanos) continue;
+            if (duplicates.held > 0) report(withOccurrences(duplicates.latest, duplicates.held));
+            iterator.remove();
+        }
+    }
+
+    private void report(ExceptionContext<?> context) {
+        for (ExceptionHandler handler : exceptionHandlers) {
+            try {
+                handler.handleException(context);
+            } catch (Throwable ignored) {}    //a failing handler must not stop the others, nor the pipeline
+        }
+    }
+
+    private static <E> ExceptionContext<E> withOccurrences(ExceptionContext<E> context, long occurrences) {
+        return new ExceptionContext<>(context.getCause(), context.getEvent(), context.getListener(), occurrences);
+    }
+
+    private static final class Source {
+        private final Object listenerObject;
+
+        private final Class<?> exceptionType;
+
+        Source(Object listenerObject, Class<?> exceptionType) {
+            this.listenerObject = listenerObject;
+            this.exceptionType = exceptionType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Source)) return false;
+            final Source other = (Source) o;
+            return exceptionType == other.exceptionType && Objects.equals(listenerObject, other.listenerObject);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(listenerObject) + exceptionType.hashCode();
+        }
+    }
+
+    private static final class Signature {
+        private final Source source;
+
+        private final int stackTraceHash;
+
+        Signature(ExceptionContext<?> context) {
+            final Throwable cause = context.getCause();
+            this.source = new Source(context.getListener() != null ? context.getListener().getListenerObject() : null, cause.getClass());
+            this.stackTraceHash = Arrays.hashCode(cause.getStackTrace());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Signature)) return false;
+            final Signature other = (Signature) o;
+            return stackTraceHash == other.stackTraceHash && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + stackTraceHash;
+        }
+    }
+
+    private static final class Duplicates {
+        final long firstReported;
+
+        ExceptionContext<?> latest;
+
+        long held;
+
+        Duplicates(ExceptionContext<?> reported, long firstReported) {
+            this.latest = reported;
+            this.firstReported = firstReported;
+        }
+    }
+
+    private static final class FailureGroup {
+        final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+        final AtomicInteger reported = new AtomicInteger();
+
+        final AtomicLong suppressed = new AtomicLong();
+
+        volatile ExceptionContext<?> latest;
+
+        volatile long lastOccurrence;
+
+        /**
+         * Takes one of the permits of the current window, starting a new window once the period of the current one has
+         * passed
+         */
+        boolean tryAcquire(long now, int permits, long periodNanos) {
+            final long start = windowStart.get();
+            if (now - start >= periodNanos && windowStart.compareAndSet(start, now)) {
+                reported.set(0);
+            }
+            return reported.incrementAndGet() <= permits;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.ConcurrentDispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A dispatcher fanning each event out across a bounded pool of worker threads
+ * <p>
+ * Listeners are delivered to in tiers of equal {@link Order priority}. Every listener within a tier may run in parallel
+ * with the others, but a tier is only started once the previous tier has completed, so the ordering guarantees of the
+ * sequential dispatcher are preserved between priorities. The dispatching thread takes part in delivering each tier and
+ * {@link #dispatch(Object, Iterable, Iterable) dispatch} only returns once every listener has been invoked.
+ * <p>
+ * Listener {@link Listener#getFilter() filters} are tested on the dispatching thread before the tier of their listeners
+ * is started. A filter instance shared by several listeners, within a tier or across tiers, is evaluated only once per
+ * event.
+ * <p>
+ * Exception handlers may be invoked from worker threads, and as such must be safe for concurrent use.
+ * <p>
+ * Work waiting for a worker thread is held in a bounded queue. When the queue is full, the work is run by the thread
+ * handing it off instead, which slows producers down to the pace of the workers. This applies to
+ * {@link #dispatchAsync(Object, Iterable, Iterable) asynchronous dispatch} as well: while the queue is full, it
+ * delivers on the calling thread and returns an already completed future. Once the dispatcher has been
+ * {@link #shutdown() shut down}, synchronous dispatch carries on using only the calling thread, while asynchronous
+ * dispatch returns a future failed with a {@link RejectedExecutionException}.
+ *
+ * @author Foundry
+ */
+public class BasicConcurrentDispatcher<L, E> implements ConcurrentDispatcher<L, E> {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final ThreadFactory threadFactory;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int parallelism;
+
+    public BasicConcurrentDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BasicConcurrentDispatcher(int parallelism) {
+        this(parallelism, new DispatchThreadFactory("concurrent-dispatch"));
+    }
+
+    public BasicConcurrentDispatcher(int parallelism, ThreadFactory threadFactory) {
+        this(parallelism, DEFAULT_QUEUE_CAPACITY, threadFactory);
+    }
+
+    /**
+     * @param queueCapacity the number of tasks which may wait for a worker thread before the threads handing them off
+     *                      run them themselves
+     */
+    public BasicConcurrentDispatcher(int parallelism, int queueCapacity, ThreadFactory threadFactory) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive, was " + parallelism);
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue capacity must be positive, was " + queueCapacity);
+        if (threadFactory == null) throw new NullPointerException("thread factory provided cannot be null");
+        this.parallelism = parallelism;
+        this.threadFactory = threadFactory;
+        this.executor = newExecutor(parallelism, queueCapacity, threadFactory);
+    }
+
+    /**
+     * Creates the bounded pool of a dispatcher, whose saturation policy is described by {@link CallerRunsUntilShutdown}
+     */
+    static ThreadPoolExecutor newExecutor(int parallelism, int queueCapacity, ThreadFactory threadFactory) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new CallerRunsUntilShutdown());
+        executor.allowCoreThreadTimeOut(true);    //idle dispatchers should not pin threads
+        return executor;
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatchAll(Collections.singletonList(event), listeners, exceptionHandlers);
+    }
+
+    /**
+     * Dispatches a batch of events, with each listener of a tier being run over the whole batch on a single thread
+     */
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final FilterVerdicts<E> verdicts = new FilterVerdicts<>(events, exceptionHandlers);
+        final List<Listener<L, E>> tier = new ArrayList<>();
+        Order tierPriority = null;
+        for (Listener<L, E> listener : listeners) {
+            final Order priority = listener.getPriority();
+            if (priority != tierPriority && !tier.isEmpty()) {   //listeners arrive ordered, so a new priority closes the tier
+                dispatchTier(verdicts, tier);
+                tier.clear();
+            }
+            tierPriority = priority;
+            tier.add(listener);
+        }
+        if (!tier.isEmpty()) {
+            dispatchTier(verdicts, tier);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatchAsync(event, listeners, exceptionHandlers, executor);
+    }
+
+    @Override
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Stops the worker threads once the work already handed to them has completed
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    private void dispatchTier(FilterVerdicts<E> verdicts, List<Listener<L, E>> tier) {
+        if (tier.size() == 1) {
+            for (int index = 0; index < verdicts.getEventCount(); index++) {
+                verdicts.invoke(tier.get(0), index);
+            }
+        } else {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            final Listener<L, E>[] listeners = tier.toArray(new Listener[tier.size()]);
+            invokeAll(executor, parallelism, verdicts, listeners, 0, listeners.length);
+        }
+    }
+
+    /**
+     * Invokes a range of listeners in parallel, returning once all of them have completed
+     * <p>
+     * Helpers are only submitted to the executor to race the calling thread for unclaimed listeners. The calling thread
+     * never waits on a listener that has not started, so a saturated or shut down executor degrades to sequential
+     * delivery rather than a deadlock, including for events dispatched from within a listener.
+     * <p>
+     * The filters of the range are tested on the calling thread before any listener runs, so that listeners sharing a
+     * filter still have it evaluated only once per event.
+     */
+    static <L, E> void invokeAll(Executor executor, int parallelism, FilterVerdicts<E> verdicts, Listener<L, E>[] listeners, int from, int to) {
+        verdicts.evaluate(listeners, from, to);
+        final FanOut<L, E> fanOut = new FanOut<>(verdicts, listeners, from, to);
+        for (int i = Math.min(to - from, parallelism) - 1; i > 0; i--) {
+            try {
+                executor.execute(fanOut);
+            } catch (RejectedExecutionException e) {
+                break;  //the calling thread will pick up whatever is left
+            }
+        }
+        fanOut.run();
+        fanOut.awaitCompletion();
+    }
+
+    private static final class FanOut<L, E> implements Runnable {
+        private final FilterVerdicts<E> verdicts;
+        private final Listener<L, E>[] listeners;
+        private final int to;
+        private final AtomicInteger cursor;
+        private final CountDownLatch completion;
+
+        FanOut(FilterVerdicts<E> verdicts, Listener<L, E>[] listeners, int from, int to) {
+            this.verdicts = verdicts;
+            this.listeners = listeners;
+            this.to = to;
+            this.cursor = new AtomicInteger(from);
+            this.completion = new CountDownLatch(to - from);
+        }
+
+        @Override
+        public void run() {
+            for (int i; (i = cursor.getAndIncrement()) < to; ) {
+                try {
+                    for (int index = 0; index < verdicts.getEventCount(); index++) {
+                        verdicts.invoke(listeners[i], index);
+                    }
+                } finally {
+                    completion.countDown();
+                }
+            }
+        }
+
+        void awaitCompletion() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    completion.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true; //delivery has already begun and cannot be abandoned halfway
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs work which does not fit in the queue on the thread handing it off, and rejects work once the pool has been
+     * shut down, as the caller would otherwise never learn that it is not going to run
+     */
+    static final class CallerRunsUntilShutdown implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) throw new RejectedExecutionException("Dispatcher has been shut down");
+            task.run();
+        }
+    }
+
+    /**
+     * Creates the daemon threads of a single pool, named after the component owning the pool
+     */
+    static final class DispatchThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private final String prefix;
+
+        DispatchThreadFactory(String name) {
+            this.prefix = "causam-" + name + "-" + POOL_COUNT.incrementAndGet() + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
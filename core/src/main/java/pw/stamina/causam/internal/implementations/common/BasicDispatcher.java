@@ -0,0 +1,169 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.dispatch.SequentialDispatcher;
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.StoppableEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A dispatcher invoking every listener in turn on the dispatching thread
+ * <p>
+ * Listener {@link Listener#getFilter() filters} are tested before invocation. The outcome of each filter is remembered
+ * for the event being dispatched, so a filter instance shared by several listeners is evaluated only once per event,
+ * whether or not those listeners are adjacent.
+ * <p>
+ * Once a {@link StoppableEvent stoppable event} has been stopped, the remaining listeners are skipped, except for
+ * monitors.
+ *
+ * @author Foundry
+ */
+public class BasicDispatcher<L, E> implements SequentialDispatcher<L, E> {
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final Listener<L, E>[] listenerArray = toArray(listeners);    //buses dispatch arrays, so only foreign iterables are copied
+        dispatchRange(event, listenerArray, 0, listenerArray.length, exceptionHandlers);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatchRange(event, listeners, 0, listeners.length, exceptionHandlers);
+    }
+
+    /**
+     * Invokes a range of listeners in turn, with the same filtering and stopping behaviour as a whole dispatch
+     * <p>
+     * The filters tested are recorded by the position of the first listener carrying them, in bit sets which only spill
+     * over into an allocated array for ranges of more than 64 listeners.
+     */
+    static <L, E> void dispatchRange(E event, Listener<L, E>[] listeners, int from, int to, Iterable<ExceptionHandler> exceptionHandlers) {
+        final StoppableEvent stoppable = (event instanceof StoppableEvent ? (StoppableEvent) event : null);
+        final int spilledWords = (to - from - 1) >>> 6;
+        final long[] spilled = (spilledWords > 0 ? new long[2 * spilledWords] : null);  //tested bits, then accepted bits
+        long tested = 0L, accepted = 0L;
+        Predicate<? super E> lastFilter = null;
+        boolean lastAccepted = true;
+        for (int i = from; i < to; i++) {
+            final Listener<L, E> listener = listeners[i];
+            if (isStopped(stoppable, listener)) continue;
+            final Predicate<? super E> filter = listener.getFilter();
+            if (filter != null && filter != lastFilter) {
+                lastFilter = filter;
+                final int earlier = findTested(listeners, from, i, filter, tested, spilled);
+                if (earlier >= 0) {
+                    lastAccepted = isSet(accepted, spilled, spilledWords, earlier);
+                } else {
+                    lastAccepted = test(filter, listener, event, exceptionHandlers);
+                    final int bit = i - from;
+                    if (bit < Long.SIZE) {
+                        tested |= 1L << bit;
+                        if (lastAccepted) accepted |= 1L << bit;
+                    } else {
+                        spilled[(bit >>> 6) - 1] |= 1L << bit;
+                        if (lastAccepted) spilled[spilledWords + (bit >>> 6) - 1] |= 1L << bit;
+                    }
+                }
+            }
+            if (filter == null || lastAccepted) deliver(listener, event, exceptionHandlers);
+        }
+    }
+
+    /**
+     * Finds the position, relative to the start of the range, of the listener whose test of a filter has been recorded,
+     * or -1 if the filter has not been tested yet
+     */
+    private static <L, E> int findTested(Listener<L, E>[] listeners, int from, int to, Predicate<? super E> filter, long tested, long[] spilled) {
+        for (int i = to - 1; i >= from; i--) {
+            if (listeners[i].getFilter() == filter && isSet(tested, spilled, 0, i - from)) return i - from;
+        }
+        return -1;
+    }
+
+    private static boolean isSet(long word, long[] spilled, int offset, int bit) {
+        return ((bit < Long.SIZE ? word : spilled[offset + (bit >>> 6) - 1]) >>> bit & 1L) != 0L;
+    }
+
+    /**
+     * Runs each listener over the whole list of events, testing every filter only once per event
+     */
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final FilterVerdicts<E> verdicts = new FilterVerdicts<>(events, exceptionHandlers);
+        for (Listener<L, E> listener : listeners) {
+            for (int index = 0; index < events.size(); index++) {
+                verdicts.invoke(listener, index);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <L, E> Listener<L, E>[] toArray(Iterable<Listener<L, E>> listeners) {
+        if (listeners instanceof Collection) {
+            final Collection<Listener<L, E>> listenerCollection = (Collection<Listener<L, E>>) listeners;
+            return listenerCollection.toArray(new Listener[listenerCollection.size()]);
+        }
+        final List<Listener<L, E>> listenerList = new ArrayList<>();
+        listeners.forEach(listenerList::add);
+        return listenerList.toArray(new Listener[listenerList.size()]);
+    }
+
+    /**
+     * Checks whether a listener is to be skipped because the event it would receive has been stopped, which never applies
+     * to monitors
+     */
+    static boolean isStopped(StoppableEvent stoppable, Listener<?, ?> listener) {
+        return stoppable != null && stoppable.isStopped() && !listener.getPriority().isMonitor();
+    }
+
+    /**
+     * Tests a listener filter against an event, treating a filter failure as a rejection reported to the exception
+     * handlers
+     */
+    static <L, E> boolean test(Predicate<? super E> filter, Listener<L, E> listener, E event, Iterable<ExceptionHandler> exceptionHandlers) {
+        try {
+            return filter.test(event);
+        } catch (Throwable t) {
+            handle(t, listener, event, exceptionHandlers);
+            return false;
+        }
+    }
+
+    static <L, E> void deliver(Listener<L, E> listener, E event, Iterable<ExceptionHandler> exceptionHandlers) {
+        try {
+            listener.invoke(event);
+        } catch (Throwable t) {
+            handle(t, listener, event, exceptionHandlers);
+        }
+    }
+
+    private static <L, E> void handle(Throwable t, Listener<L, E> listener, E event, Iterable<ExceptionHandler> exceptionHandlers) {
+        ExceptionContext<E> context = new ExceptionContext<>(t, event, listener);
+        for (ExceptionHandler handler : exceptionHandlers) {
+            handler.handleException(context);
+        }
+    }
+}
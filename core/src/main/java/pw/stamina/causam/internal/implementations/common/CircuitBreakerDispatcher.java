@@ -0,0 +1,317 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.CircuitBreakerException;
+import pw.stamina.causam.api.exception.CircuitBreakerException.State;
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A dispatcher guarding every listener with a circuit breaker, so that listeners which keep failing stop being invoked
+ * <p>
+ * The breaker of a listener opens after a number of consecutive failures, or optionally after a number of failures
+ * within a window of time, whether or not they were consecutive. While open, the listener is skipped without being
+ * invoked. Once the breaker has been open for the configured duration, the next event is delivered to the listener as a
+ * probe: the breaker closes if the probe succeeds, and opens again if it fails. Events arriving while the probe runs
+ * skip the listener.
+ * <p>
+ * Every change of state is reported to the exception handlers of the dispatch as a {@link CircuitBreakerException}.
+ * Failures themselves are reported by the underlying dispatcher as usual. The breaker of a listener is kept for as long
+ * as the registered listener is, across registrations of other containers and regardless of the
+ * {@link DelegatingListener wrappers} other decorating dispatchers put around it.
+ *
+ * @author Foundry
+ */
+public class CircuitBreakerDispatcher<L, E> implements Dispatcher<L, E> {
+
+    private final Dispatcher<L, E> dispatcher;
+
+    private final int consecutiveFailures;
+
+    private final int windowFailures;
+
+    private final long windowNanos;
+
+    private final long openNanos;
+
+    private final Map<Listener<L, E>, Breaker> breakers = new ConcurrentWeakHashMap<>();
+
+    private final Map<Listener<L, E>[], GuardedArray<L, E>> guardedArrays = new ConcurrentWeakHashMap<>();    //arrays compare by identity
+
+    public CircuitBreakerDispatcher(Dispatcher<L, E> dispatcher, int consecutiveFailures, long openDuration, TimeUnit unit) {
+        this(dispatcher, consecutiveFailures, Integer.MAX_VALUE, Long.MAX_VALUE, openDuration, unit);
+    }
+
+    /**
+     * @param consecutiveFailures the number of failures in a row which open the breaker of a listener
+     * @param windowFailures      the number of failures within a window which open the breaker of a listener
+     * @param window              the length of that window, in the same unit as the open duration
+     * @param openDuration        how long a breaker stays open before the listener is probed
+     */
+    public CircuitBreakerDispatcher(Dispatcher<L, E> dispatcher, int consecutiveFailures, int windowFailures, long window,
+                                    long openDuration, TimeUnit unit) {
+        if (dispatcher == null) throw new NullPointerException("dispatcher provided cannot be null");
+        if (consecutiveFailures < 1) throw new IllegalArgumentException("consecutive failures must be positive, was " + consecutiveFailures);
+        if (windowFailures < 1) throw new IllegalArgumentException("window failures must be positive, was " + windowFailures);
+        if (window <= 0) throw new IllegalArgumentException("window must be positive, was " + window);
+        if (openDuration < 0) throw new IllegalArgumentException("open duration cannot be negative, was " + openDuration);
+        this.dispatcher = dispatcher;
+        this.consecutiveFailures = consecutiveFailures;
+        this.windowFailures = windowFailures;
+        this.windowNanos = unit.toNanos(window);
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, guard(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, guard(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatchAll(events, guard(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatcher.dispatchAsync(event, guard(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers, Executor executor) {
+        return dispatcher.dispatchAsync(event, guard(listeners, exceptionHandlers), exceptionHandlers, executor);
+    }
+
+    /**
+     * Gets the state of the breaker of a listener, which is closed for listeners that have never failed
+     */
+    public State getState(Listener<L, E> listener) {
+        final Breaker breaker = breakers.get(DelegatingListener.unwrap(listener));
+        return (breaker != null ? breaker.getState() : State.CLOSED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Listener<L, E>[] guard(Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        GuardedArray<L, E> guarded = guardedArrays.get(listeners);
+        if (guarded == null || guarded.exceptionHandlers != exceptionHandlers) {    //the handlers of a bus do not change, so this is rare
+            guarded = new GuardedArray<>(Arrays.copyOf(listeners, listeners.length, Listener[].class), exceptionHandlers);
+            for (int i = 0; i < listeners.length; i++) {
+                guarded.listeners[i] = guard(listeners[i], exceptionHandlers);
+            }
+            guardedArrays.put(listeners, guarded);
+        }
+        return guarded.listeners;
+    }
+
+    private Iterable<Listener<L, E>> guard(Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final List<Listener<L, E>> guarded = new ArrayList<>();
+        for (Listener<L, E> listener : listeners) {
+            guarded.add(guard(listener, exceptionHandlers));
+        }
+        return guarded;
+    }
+
+    private Listener<L, E> guard(Listener<L, E> listener, Iterable<ExceptionHandler> exceptionHandlers) {
+        final Breaker breaker = breakers.computeIfAbsent(DelegatingListener.unwrap(listener),    //wrappers come and go with listener arrays
+                l -> new Breaker(consecutiveFailures, windowFailures, windowNanos, openNanos));
+        return new GuardedListener<>(listener, breaker, exceptionHandlers);
+    }
+
+    private static final class GuardedArray<L, E> {
+        final Listener<L, E>[] listeners;
+
+        final Iterable<ExceptionHandler> exceptionHandlers;
+
+        GuardedArray(Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+            this.listeners = listeners;
+            this.exceptionHandlers = exceptionHandlers;
+        }
+    }
+
+    /**
+     * The breaker of a single listener. A closed breaker costs a single volatile read per invocation, and another once
+     * the listener has failed.
+     */
+    private static final class Breaker {
+        private static final int CLOSED = 0, OPEN = 1, HALF_OPEN = 2;
+
+        private final int consecutiveFailures;
+
+        private final int windowFailures;
+
+        private final long windowNanos;
+
+        private final long openNanos;
+
+        private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+        private final AtomicInteger consecutive = new AtomicInteger();
+
+        private final AtomicLong windowStart = new AtomicLong();
+
+        private final AtomicInteger windowed = new AtomicInteger();
+
+        private volatile long openedAt;
+
+        Breaker(int consecutiveFailures, int windowFailures, long windowNanos, long openNanos) {
+            this.consecutiveFailures = consecutiveFailures;
+            this.windowFailures = windowFailures;
+            this.windowNanos = windowNanos;
+            this.openNanos = openNanos;
+        }
+
+        State getState() {
+            switch (state.get()) {
+                case OPEN:
+                    return State.OPEN;
+                case HALF_OPEN:
+                    return State.HALF_OPEN;
+                default:
+                    return State.CLOSED;
+            }
+        }
+
+        /**
+         * Checks whether the listener may be invoked, turning an expired open breaker half-open for a probe
+         */
+        <T> boolean allow(GuardedListener<?, T> listener, T event) {
+            final int current = state.get();
+            if (current == CLOSED) return true;
+            if (current == OPEN && System.nanoTime() - openedAt >= openNanos && state.compareAndSet(OPEN, HALF_OPEN)) {
+                listener.report(State.HALF_OPEN, null, event);
+                return true;
+            }
+            return false;
+        }
+
+        <T> void succeeded(GuardedListener<?, T> listener, T event) {
+            if (consecutive.get() != 0) consecutive.set(0);
+            if (state.get() == HALF_OPEN && state.compareAndSet(HALF_OPEN, CLOSED)) {
+                listener.report(State.CLOSED, null, event);
+            }
+        }
+
+        <T> void failed(GuardedListener<?, T> listener, T event, Throwable cause) {
+            final long now = System.nanoTime();
+            final int current = state.get();
+            if (current == HALF_OPEN) {
+                open(HALF_OPEN, now, listener, event, cause);
+            } else if (current == CLOSED && (consecutive.incrementAndGet() >= consecutiveFailures || windowFailed(now) >= windowFailures)) {
+                open(CLOSED, now, listener, event, cause);
+            }
+        }
+
+        private int windowFailed(long now) {
+            if (windowFailures == Integer.MAX_VALUE) return 0;    //windowed failures are not counted
+            final long start = windowStart.get();
+            if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+                windowed.set(0);
+            }
+            return windowed.incrementAndGet();
+        }
+
+        private <T> void open(int from, long now, GuardedListener<?, T> listener, T event, Throwable cause) {
+            openedAt = now;
+            if (state.compareAndSet(from, OPEN)) {
+                consecutive.set(0);
+                windowed.set(0);
+                listener.report(State.OPEN, cause, event);
+            }
+        }
+    }
+
+    private static final class GuardedListener<L, E> implements DelegatingListener<L, E> {
+        private final Listener<L, E> listener;
+
+        private final Breaker breaker;
+
+        private final Iterable<ExceptionHandler> exceptionHandlers;
+
+        GuardedListener(Listener<L, E> listener, Breaker breaker, Iterable<ExceptionHandler> exceptionHandlers) {
+            this.listener = listener;
+            this.breaker = breaker;
+            this.exceptionHandlers = exceptionHandlers;
+        }
+
+        @Override
+        public void invoke(E event) throws Throwable {
+            if (!breaker.allow(this, event)) return;
+            try {
+                listener.invoke(event);
+            } catch (Throwable t) {
+                breaker.failed(this, event, t);
+                throw t;
+            }
+            breaker.succeeded(this, event);
+        }
+
+        void report(State state, Throwable cause, E event) {
+            final ExceptionContext<E> context = new ExceptionContext<>(new CircuitBreakerException(listener.getListenerObject(), state, cause), event, listener);
+            for (ExceptionHandler handler : exceptionHandlers) {
+                handler.handleException(context);
+            }
+        }
+
+        @Override
+        public L getListenerObject() {
+            return listener.getListenerObject();
+        }
+
+        @Override
+        public Class<? extends E> getEventType() {
+            return listener.getEventType();
+        }
+
+        @Override
+        public Order getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public Predicate<? super E> getFilter() {
+            return listener.getFilter();
+        }
+
+        @Override
+        public Listener<L, E> getDelegate() {
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+
+/**
+ * A listener wrapping the listener of a registry to add behaviour around its invocation, such as timing or guarding it
+ * <p>
+ * Decorating dispatchers build new wrappers whenever the listeners of an event change, so state kept per listener is
+ * keyed by the {@link #unwrap(Listener) registered listener} instead, which lives for as long as its registration.
+ *
+ * @author Foundry
+ */
+public interface DelegatingListener<L, E> extends Listener<L, E> {
+
+    /**
+     * Gets the listener this listener wraps, which may itself be a delegating listener
+     */
+    Listener<L, E> getDelegate();
+
+    /**
+     * Gets the registered listener underneath any number of delegating listeners
+     */
+    static <L, E> Listener<L, E> unwrap(Listener<L, E> listener) {
+        while (listener instanceof DelegatingListener) {
+            listener = ((DelegatingListener<L, E>) listener).getDelegate();
+        }
+        return listener;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.StoppableEvent;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The outcomes of the listener filters tested during the dispatch of a list of events, by which a filter instance shared
+ * by several listeners is evaluated only once per event, wherever those listeners are in the dispatch order
+ * <p>
+ * Outcomes are recorded without synchronization. Listeners invoked in parallel must have their filters
+ * {@link #evaluate(Listener[], int, int) evaluated} up front, after which invoking them only reads recorded outcomes.
+ *
+ * @author Foundry
+ */
+final class FilterVerdicts<E> {
+    private static final byte ACCEPTED = 1;
+
+    private static final byte REJECTED = 2;
+
+    private final List<? extends E> events;
+
+    private final Iterable<ExceptionHandler> exceptionHandlers;
+
+    private final Map<Predicate<? super E>, byte[]> verdicts = new IdentityHashMap<>();
+
+    FilterVerdicts(List<? extends E> events, Iterable<ExceptionHandler> exceptionHandlers) {
+        this.events = events;
+        this.exceptionHandlers = exceptionHandlers;
+    }
+
+    int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Tests the filters of a range of listeners against every event they have not been tested against yet
+     */
+    <L> void evaluate(Listener<L, E>[] listeners, int from, int to) {
+        for (int i = from; i < to; i++) {
+            for (int index = 0; index < events.size(); index++) {
+                accepts(listeners[i], index);
+            }
+        }
+    }
+
+    /**
+     * Invokes a listener with an event of the list, unless the event has been stopped or the listener filter rejects it
+     */
+    <L> void invoke(Listener<L, E> listener, int index) {
+        final E event = events.get(index);
+        if (event instanceof StoppableEvent && BasicDispatcher.isStopped((StoppableEvent) event, listener)) return;
+        if (accepts(listener, index)) {
+            BasicDispatcher.deliver(listener, event, exceptionHandlers);
+        }
+    }
+
+    private <L> boolean accepts(Listener<L, E> listener, int index) {
+        final Predicate<? super E> filter = listener.getFilter();
+        if (filter == null) return true;
+        byte[] outcomes = verdicts.get(filter);
+        if (outcomes == null) {
+            verdicts.put(filter, outcomes = new byte[events.size()]);
+        }
+        if (outcomes[index] == 0) {
+            outcomes[index] = (BasicDispatcher.test(filter, listener, events.get(index), exceptionHandlers) ? ACCEPTED : REJECTED);
+        }
+        return outcomes[index] == ACCEPTED;
+    }
+}
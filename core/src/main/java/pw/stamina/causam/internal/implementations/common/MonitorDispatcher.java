@@ -0,0 +1,238 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.ConcurrentDispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A dispatcher taking read-only {@link Order#isMonitor() monitors} off the critical path of the dispatching thread
+ * <p>
+ * The monitors leading the listeners of an event, such as {@link Order#PRE PRE}, run in parallel with one another, and
+ * the mutating listeners only start once all of them have observed the event. The mutating listeners then run in turn on
+ * the dispatching thread. The trailing monitors, such as {@link Order#POST POST}, are handed to a worker thread and
+ * {@link #dispatch(Object, Iterable, Iterable) dispatch} returns without waiting for them, so events must not be
+ * modified once they have been dispatched. Monitors ordered after a mutating priority always trail, even when the
+ * event has no mutating listeners.
+ * <p>
+ * The trailing monitors of successive events run one event at a time, in the order the events were dispatched. At most
+ * as many events as the queue capacity wait for their trailing monitors. Beyond that, the dispatching thread catches up
+ * on them itself, as it also does once the dispatcher has been {@link #shutdown() shut down}.
+ * <p>
+ * A listener {@link Listener#getFilter() filter} shared by several listeners is evaluated only once per event, even when
+ * those listeners fall on different sides of the mutating listeners.
+ * <p>
+ * Exception handlers may be invoked from worker threads, and as such must be safe for concurrent use. Futures returned
+ * by {@link #dispatchAsync(Object, Iterable, Iterable) dispatchAsync} do not wait for trailing monitors either.
+ *
+ * @author Foundry
+ */
+public class MonitorDispatcher<L, E> implements ConcurrentDispatcher<L, E> {
+
+    private static final Order FIRST_MUTATING_PRIORITY = Arrays.stream(Order.values())
+            .filter(priority -> !priority.isMonitor())
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+
+    private final ThreadFactory threadFactory;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int parallelism;
+
+    private final TrailingLane trailingLane;
+
+    public MonitorDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonitorDispatcher(int parallelism) {
+        this(parallelism, new BasicConcurrentDispatcher.DispatchThreadFactory("monitor-dispatch"));
+    }
+
+    public MonitorDispatcher(int parallelism, ThreadFactory threadFactory) {
+        this(parallelism, BasicConcurrentDispatcher.DEFAULT_QUEUE_CAPACITY, threadFactory);
+    }
+
+    /**
+     * @param queueCapacity the number of tasks which may wait for a worker thread before the threads handing them off
+     *                      run them themselves
+     */
+    public MonitorDispatcher(int parallelism, int queueCapacity, ThreadFactory threadFactory) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive, was " + parallelism);
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue capacity must be positive, was " + queueCapacity);
+        if (threadFactory == null) throw new NullPointerException("thread factory provided cannot be null");
+        this.parallelism = parallelism;
+        this.threadFactory = threadFactory;
+        this.executor = BasicConcurrentDispatcher.newExecutor(parallelism, queueCapacity, threadFactory);
+        this.trailingLane = new TrailingLane(executor, queueCapacity);
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatch(event, BasicDispatcher.toArray(listeners), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        int leadingEnd = 0, trailingStart = listeners.length;
+        while (leadingEnd < trailingStart && isLeading(listeners[leadingEnd].getPriority())) leadingEnd++;
+        while (trailingStart > leadingEnd && listeners[trailingStart - 1].getPriority().isMonitor()) trailingStart--;
+
+        final FilterVerdicts<E> verdicts = new FilterVerdicts<>(Collections.singletonList(event), exceptionHandlers);
+        if (leadingEnd > 1) {
+            BasicConcurrentDispatcher.invokeAll(executor, parallelism, verdicts, listeners, 0, leadingEnd);
+        } else if (leadingEnd == 1) {
+            verdicts.invoke(listeners[0], 0);
+        }
+
+        for (int i = leadingEnd; i < trailingStart; i++) {
+            verdicts.invoke(listeners[i], 0);
+        }
+
+        if (trailingStart < listeners.length) {
+            final int from = trailingStart;
+            trailingLane.submit(() -> {    //the verdicts are handed over to the lane along with the event
+                for (int i = from; i < listeners.length; i++) {
+                    verdicts.invoke(listeners[i], 0);
+                }
+            });
+        }
+    }
+
+    /**
+     * Checks whether listeners of a priority are monitors ordered before every mutating priority
+     */
+    private static boolean isLeading(Order priority) {
+        return priority.isMonitor() && priority.compareTo(FIRST_MUTATING_PRIORITY) < 0;
+    }
+
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final Listener<L, E>[] listenerArray = BasicDispatcher.toArray(listeners);
+        for (E event : events) {
+            dispatch(event, listenerArray, exceptionHandlers);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatchAsync(event, listeners, exceptionHandlers, executor);
+    }
+
+    @Override
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Stops the worker threads once the work already handed to them has completed, after which trailing monitors run on
+     * the dispatching thread
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the trailing monitors of successive events one event at a time, in the order the events were dispatched
+     * <p>
+     * At most one thread drains the lane at once, usually a worker thread. When the lane holds as many events as the
+     * queue capacity, the dispatching thread drains it itself if no other thread is, or otherwise waits for room.
+     * Events dispatched from within a trailing monitor have their own trailing monitors run immediately, as the thread
+     * draining the lane would otherwise wait for itself.
+     */
+    private static final class TrailingLane {
+        private final Executor executor;
+
+        private final Semaphore capacity;
+
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile Thread drainer;
+
+        TrailingLane(Executor executor, int capacity) {
+            this.executor = executor;
+            this.capacity = new Semaphore(capacity);
+        }
+
+        void submit(Runnable trailingMonitors) {
+            if (Thread.currentThread() == drainer) {
+                trailingMonitors.run();
+                return;
+            }
+            if (!capacity.tryAcquire()) {
+                drain();
+                capacity.acquireUninterruptibly();
+            }
+            pending.add(trailingMonitors);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(() -> {
+                        scheduled.set(false);
+                        drain();
+                    });
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    drain();    //the dispatcher has been shut down, so the dispatching thread drains the lane
+                }
+            }
+        }
+
+        /**
+         * Runs the pending trailing monitors on the current thread, unless another thread is already doing so
+         */
+        private void drain() {
+            while (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                drainer = Thread.currentThread();
+                try {
+                    for (Runnable trailingMonitors; (trailingMonitors = pending.poll()) != null; ) {
+                        capacity.release();
+                        trailingMonitors.run();
+                    }
+                } finally {
+                    drainer = null;
+                    draining.set(false);
+                }
+            }
+        }
+    }
+}
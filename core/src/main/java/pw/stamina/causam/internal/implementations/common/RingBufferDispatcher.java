@@ -0,0 +1,291 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A dispatcher publishing events into a preallocated ring buffer which is drained by a dedicated consumer thread
+ * <p>
+ * Producers claim a slot by incrementing a shared sequence, fill it in place and mark it as published; no locks are taken
+ * and nothing is allocated on the publishing path. The consumer delivers events strictly in sequence order through a
+ * delegate dispatcher, which is a {@link BasicDispatcher} unless specified otherwise.
+ * <p>
+ * Unlike most dispatchers, {@link #dispatch(Object, Iterable, Iterable) dispatch} returns as soon as the event has been
+ * published. A producer only waits, according to the configured {@link WaitStrategy}, when the buffer is full.
+ * <p>
+ * Events dispatched by a listener, and therefore on the consumer thread, are delivered inline rather than published,
+ * ahead of the events already waiting in the buffer. The consumer is the only thread freeing up slots, so it could
+ * otherwise wait forever on a full buffer.
+ *
+ * @author Foundry
+ */
+public class RingBufferDispatcher<L, E> implements Dispatcher<L, E> {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 13;
+
+    private final Dispatcher<L, E> delegate;
+
+    private final WaitStrategy waitStrategy;
+
+    private final Slot<L, E>[] slots;
+
+    private final int mask;
+
+    private final AtomicLongArray published;
+
+    private final Sequence claimed = new Sequence();
+
+    private final Sequence consumed = new Sequence();
+
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+
+    public RingBufferDispatcher() {
+        this(DEFAULT_BUFFER_SIZE, WaitStrategy.PARK);
+    }
+
+    public RingBufferDispatcher(int bufferSize, WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, r -> {
+            final Thread thread = new Thread(r, "causam-ring-consumer");
+            thread.setDaemon(true);
+            return thread;
+        }, new BasicDispatcher<>());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RingBufferDispatcher(int bufferSize, WaitStrategy waitStrategy, ThreadFactory threadFactory, Dispatcher<L, E> delegate) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("buffer size must be a power of two, was " + bufferSize);
+        if (waitStrategy == null) throw new NullPointerException("wait strategy provided cannot be null");
+        if (delegate == null) throw new NullPointerException("delegate dispatcher provided cannot be null");
+        this.waitStrategy = waitStrategy;
+        this.delegate = delegate;
+        this.slots = new Slot[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new Slot<>();
+        }
+        this.mask = bufferSize - 1;
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1L);
+        }
+        this.consumer = threadFactory.newThread(this::consume);
+        this.consumer.start();
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        publish(event, listeners, null, exceptionHandlers, null);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        publish(event, null, listeners, exceptionHandlers, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return delegate.dispatchAsync(event, listeners, exceptionHandlers, task -> publish(null, null, null, null, task));
+    }
+
+    /**
+     * Stops accepting new events; events that have already been published are still delivered before the consumer exits
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    public int getBufferSize() {
+        return slots.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    private void publish(E event, Iterable<Listener<L, E>> listeners, Listener<L, E>[] listenerArray,
+                         Iterable<ExceptionHandler> exceptionHandlers, Runnable task) {
+        if (!running) throw new IllegalStateException("Ring buffer dispatcher has been shut down");
+        if (Thread.currentThread() == consumer) {
+            deliver(event, listeners, listenerArray, exceptionHandlers, task);
+            return;
+        }
+        final long sequence = claimed.incrementAndGet();
+        final long wrapPoint = sequence - slots.length;
+        for (int idleCount = 0; wrapPoint > consumed.value; idleCount++) {   //wait for the consumer to free up our slot
+            if (!consumer.isAlive()) {    //shut down while waiting; nothing will read the slot, so it can be abandoned
+                throw new IllegalStateException("Ring buffer dispatcher has been shut down");
+            }
+            waitStrategy.idle(idleCount);
+        }
+
+        final int index = (int) sequence & mask;
+        final boolean accepted = running;   //checked after claiming so that the consumer never waits on an abandoned slot
+        if (accepted) {
+            final Slot<L, E> slot = slots[index];
+            slot.event = event;
+            slot.listeners = listeners;
+            slot.listenerArray = listenerArray;
+            slot.exceptionHandlers = exceptionHandlers;
+            slot.task = task;
+        }
+        published.lazySet(index, sequence);
+
+        if (!accepted) throw new IllegalStateException("Ring buffer dispatcher has been shut down");
+    }
+
+    private void consume() {
+        long next = consumed.value + 1;
+        int idleCount = 0;
+        while (true) {
+            final int index = (int) next & mask;
+            if (published.get(index) == next) {
+                final Slot<L, E> slot = slots[index];
+                final E event = slot.event;
+                final Iterable<Listener<L, E>> listeners = slot.listeners;
+                final Listener<L, E>[] listenerArray = slot.listenerArray;
+                final Iterable<ExceptionHandler> exceptionHandlers = slot.exceptionHandlers;
+                final Runnable task = slot.task;
+                slot.clear();   //release references before handing the slot back
+                consumed.lazySet(next++);
+                idleCount = 0;
+
+                try {
+                    deliver(event, listeners, listenerArray, exceptionHandlers, task);
+                } catch (Throwable t) {
+                    final Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, t);
+                }
+            } else if (!running && claimed.value < next) {
+                break;  //shut down and fully drained
+            } else {
+                waitStrategy.idle(idleCount++);
+            }
+        }
+    }
+
+    private void deliver(E event, Iterable<Listener<L, E>> listeners, Listener<L, E>[] listenerArray,
+                         Iterable<ExceptionHandler> exceptionHandlers, Runnable task) {
+        if (task != null) {
+            task.run();
+        } else if (listenerArray != null) {
+            delegate.dispatch(event, listenerArray, exceptionHandlers);
+        } else if (listeners != null) {
+            delegate.dispatch(event, listeners, exceptionHandlers);
+        }
+    }
+
+    /**
+     * The strategy used by the consumer while waiting for events, and by producers while waiting for free space
+     */
+    public enum WaitStrategy {
+        /**
+         * Spins on the sequence without ever giving up the CPU; lowest latency, but occupies a core
+         */
+        BUSY_SPIN {
+            @Override
+            void idle(int idleCount) {}
+        },
+
+        /**
+         * Spins briefly before yielding the CPU between checks
+         */
+        YIELD {
+            @Override
+            void idle(int idleCount) {
+                if (idleCount > SPIN_TRIES) Thread.yield();
+            }
+        },
+
+        /**
+         * Spins and yields briefly before parking between checks; the most CPU friendly strategy
+         */
+        PARK {
+            @Override
+            void idle(int idleCount) {
+                if (idleCount > SPIN_TRIES + YIELD_TRIES) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                } else if (idleCount > SPIN_TRIES) {
+                    Thread.yield();
+                }
+            }
+        };
+
+        private static final int SPIN_TRIES = 100;
+
+        private static final int YIELD_TRIES = 100;
+
+        private static final long PARK_NANOS = 50_000L;
+
+        abstract void idle(int idleCount);
+    }
+
+    private static final class Slot<L, E> {
+        E event;
+        Iterable<Listener<L, E>> listeners;
+        Listener<L, E>[] listenerArray;
+        Iterable<ExceptionHandler> exceptionHandlers;
+        Runnable task;
+
+        void clear() {
+            event = null;
+            listeners = null;
+            listenerArray = null;
+            exceptionHandlers = null;
+            task = null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class SequenceValue extends LeftPadding {
+        volatile long value = -1L;
+    }
+
+    /**
+     * A sequence counter padded on both sides, so that producers and the consumer do not contend over a cache line
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends SequenceValue {
+        private static final AtomicLongFieldUpdater<SequenceValue> UPDATER = AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+        long p9, p10, p11, p12, p13, p14, p15;
+
+        long incrementAndGet() {
+            return UPDATER.incrementAndGet(this);
+        }
+
+        void lazySet(long newValue) {
+            UPDATER.lazySet(this, newValue);
+        }
+    }
+}
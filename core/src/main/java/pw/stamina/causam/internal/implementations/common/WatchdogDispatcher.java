@@ -0,0 +1,307 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionContext;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.exception.SlowListenerException;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A dispatcher watching for listeners which run over their time budget while another dispatcher invokes them
+ * <p>
+ * Every listener is given a budget, either uniformly, by its {@link Order priority} or by an arbitrary function.
+ * Invoking a watched listener only publishes what the current thread is doing; a single watchdog thread scans the
+ * dispatching threads at a fixed resolution, and reports every invocation found over its budget once, as a
+ * {@link SlowListenerException} carrying a sample of the stack of the blocked thread. Reports are delivered to the
+ * exception handlers of the dispatch on the watchdog thread, while the listener is still running. When a listener
+ * dispatches events itself, only the innermost invocation on its thread is watched until that returns.
+ * <p>
+ * Listeners without a positive budget are handed to the underlying dispatcher as they are, and cost nothing to watch.
+ *
+ * @author Foundry
+ */
+public class WatchdogDispatcher<L, E> implements Dispatcher<L, E> {
+
+    private static final long DEFAULT_RESOLUTION_MILLIS = 10;
+
+    private final Dispatcher<L, E> dispatcher;
+
+    private final ToLongFunction<? super Listener<L, E>> budgets;
+
+    private final ThreadLocal<Invocation> invocations = ThreadLocal.withInitial(this::newInvocation);
+
+    private final Queue<Invocation> activeThreads = new ConcurrentLinkedQueue<>();
+
+    private final Map<Listener<L, E>[], WatchedArray<L, E>> watchedArrays = new ConcurrentWeakHashMap<>();    //arrays compare by identity
+
+    private final ScheduledExecutorService watchdog;
+
+    public WatchdogDispatcher(Dispatcher<L, E> dispatcher, long budget, TimeUnit unit) {
+        this(dispatcher, listener -> unit.toNanos(budget), DEFAULT_RESOLUTION_MILLIS, TimeUnit.MILLISECONDS, new BasicConcurrentDispatcher.DispatchThreadFactory("watchdog"));
+    }
+
+    /**
+     * Creates a watchdog giving listeners the budget of their priority, leaving those of priorities without a budget
+     * unwatched
+     */
+    public WatchdogDispatcher(Dispatcher<L, E> dispatcher, Map<Order, Long> budgets, TimeUnit unit) {
+        this(dispatcher, budgetsByPriority(budgets, unit), DEFAULT_RESOLUTION_MILLIS, TimeUnit.MILLISECONDS, new BasicConcurrentDispatcher.DispatchThreadFactory("watchdog"));
+    }
+
+    /**
+     * @param budgets     the budget of each listener in nanoseconds, where no positive budget leaves the listener
+     *                    unwatched. It is asked once for every listener snapshot a listener appears in.
+     * @param resolution  how often the dispatching threads are scanned, bounding how late an overrun is reported
+     */
+    public WatchdogDispatcher(Dispatcher<L, E> dispatcher, ToLongFunction<? super Listener<L, E>> budgets,
+                              long resolution, TimeUnit unit, ThreadFactory threadFactory) {
+        if (dispatcher == null) throw new NullPointerException("dispatcher provided cannot be null");
+        if (budgets == null) throw new NullPointerException("budgets provided cannot be null");
+        if (resolution <= 0) throw new IllegalArgumentException("resolution must be positive, was " + resolution);
+        this.dispatcher = dispatcher;
+        this.budgets = budgets;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.watchdog.scheduleWithFixedDelay(this::scan, resolution, resolution, unit);
+    }
+
+    private static <L, E> ToLongFunction<Listener<L, E>> budgetsByPriority(Map<Order, Long> budgets, TimeUnit unit) {
+        final Map<Order, Long> budgetNanos = new EnumMap<>(Order.class);
+        budgets.forEach((priority, budget) -> budgetNanos.put(priority, unit.toNanos(budget)));
+        return listener -> budgetNanos.getOrDefault(listener.getPriority(), 0L);
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, watch(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, watch(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatchAll(events, watch(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatcher.dispatchAsync(event, watch(listeners, exceptionHandlers), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers, Executor executor) {
+        return dispatcher.dispatchAsync(event, watch(listeners, exceptionHandlers), exceptionHandlers, executor);
+    }
+
+    /**
+     * Stops the watchdog thread, after which overruns are no longer reported
+     */
+    public void shutdown() {
+        watchdog.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Listener<L, E>[] watch(Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        WatchedArray<L, E> watched = watchedArrays.get(listeners);
+        if (watched == null || watched.exceptionHandlers != exceptionHandlers) {    //the handlers of a bus do not change, so this is rare
+            watched = new WatchedArray<>(Arrays.copyOf(listeners, listeners.length, Listener[].class), exceptionHandlers);
+            for (int i = 0; i < listeners.length; i++) {
+                watched.listeners[i] = watch(listeners[i], exceptionHandlers);
+            }
+            watchedArrays.put(listeners, watched);
+        }
+        return watched.listeners;
+    }
+
+    private Iterable<Listener<L, E>> watch(Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        final List<Listener<L, E>> watched = new ArrayList<>();
+        for (Listener<L, E> listener : listeners) {
+            watched.add(watch(listener, exceptionHandlers));
+        }
+        return watched;
+    }
+
+    private Listener<L, E> watch(Listener<L, E> listener, Iterable<ExceptionHandler> exceptionHandlers) {
+        final long budget = budgets.applyAsLong(listener);
+        return (budget > 0 ? new WatchedListener<>(listener, budget, exceptionHandlers, invocations) : listener);
+    }
+
+    private Invocation newInvocation() {
+        final Invocation invocation = new Invocation(Thread.currentThread());
+        activeThreads.add(invocation);
+        return invocation;
+    }
+
+    private void scan() {
+        final long now = System.nanoTime();
+        for (Invocation invocation : activeThreads) {
+            if (!invocation.thread.isAlive()) {    //pooled threads come and go
+                activeThreads.remove(invocation);
+                continue;
+            }
+            final long sequence = invocation.active;
+            if (sequence == 0 || sequence == invocation.reported) continue;
+            final WatchedListener<?, ?> listener = invocation.listener;
+            final Object event = invocation.event;
+            final long elapsed = now - invocation.start;
+            if (invocation.active != sequence || listener == null || elapsed <= listener.budget) continue;    //finished, or moved on, while being read
+
+            final StackTraceElement[] stack = invocation.thread.getStackTrace();
+            if (invocation.active != sequence) continue;    //the sample would not belong to the slow invocation
+            invocation.reported = sequence;
+            report(listener, event, elapsed, stack, invocation.thread);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <L, E> void report(WatchedListener<L, E> listener, Object event, long elapsed, StackTraceElement[] stack, Thread thread) {
+        final SlowListenerException overrun = new SlowListenerException(listener.getListenerObject(), event.getClass(), elapsed, listener.budget, thread);
+        overrun.setStackTrace(stack);
+        final ExceptionContext<E> context = new ExceptionContext<>(overrun, (E) event, listener.listener);
+        for (ExceptionHandler handler : listener.exceptionHandlers) {
+            try {
+                handler.handleException(context);
+            } catch (Throwable ignored) {}    //a failing handler must not stop the watchdog
+        }
+    }
+
+    private static final class WatchedArray<L, E> {
+        final Listener<L, E>[] listeners;
+
+        final Iterable<ExceptionHandler> exceptionHandlers;
+
+        WatchedArray(Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+            this.listeners = listeners;
+            this.exceptionHandlers = exceptionHandlers;
+        }
+    }
+
+    /**
+     * What a dispatching thread is currently invoking. Only the owning thread writes to it; the watchdog reads the plain
+     * fields between two reads of the volatile sequence of the invocation, and discards them if the sequence changed.
+     */
+    private static final class Invocation {
+        final Thread thread;
+
+        //the watchdog reads these between two reads of active; being volatile, its reads cannot drift past the second one
+        volatile WatchedListener<?, ?> listener;
+
+        volatile Object event;
+
+        volatile long start;
+
+        long sequence;    //read and written by the owning thread only
+
+        volatile long active;    //the sequence of the running invocation, or 0 while idle or being updated
+
+        long reported;    //written by the watchdog only
+
+        Invocation(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    private static final class WatchedListener<L, E> implements DelegatingListener<L, E> {
+        final Listener<L, E> listener;
+
+        final long budget;
+
+        final Iterable<ExceptionHandler> exceptionHandlers;
+
+        private final ThreadLocal<Invocation> invocations;
+
+        WatchedListener(Listener<L, E> listener, long budget, Iterable<ExceptionHandler> exceptionHandlers, ThreadLocal<Invocation> invocations) {
+            this.listener = listener;
+            this.budget = budget;
+            this.exceptionHandlers = exceptionHandlers;
+            this.invocations = invocations;
+        }
+
+        @Override
+        public void invoke(E event) throws Throwable {
+            final Invocation invocation = invocations.get();
+            final WatchedListener<?, ?> outerListener = invocation.listener;    //listeners may dispatch events themselves
+            final Object outerEvent = invocation.event;
+            final long outerStart = invocation.start;
+            final long outerActive = invocation.active;
+
+            invocation.active = 0;    //stops the watchdog from pairing the outer sequence with the fields written below
+            invocation.listener = this;
+            invocation.event = event;
+            invocation.start = System.nanoTime();
+            invocation.active = ++invocation.sequence;
+            try {
+                listener.invoke(event);
+            } finally {
+                invocation.active = 0;
+                invocation.listener = outerListener;
+                invocation.event = outerEvent;
+                invocation.start = outerStart;
+                invocation.active = outerActive;
+            }
+        }
+
+        @Override
+        public L getListenerObject() {
+            return listener.getListenerObject();
+        }
+
+        @Override
+        public Class<? extends E> getEventType() {
+            return listener.getEventType();
+        }
+
+        @Override
+        public Order getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public Predicate<? super E> getFilter() {
+            return listener.getFilter();
+        }
+
+        @Override
+        public Listener<L, E> getDelegate() {
+            return listener;
+        }
+    }
+}
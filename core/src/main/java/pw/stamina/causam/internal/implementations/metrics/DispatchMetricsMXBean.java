@@ -16,15 +16,21 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 
-package pw.stamina.causam.api;
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+import java.util.List;
+import java.util.Map;
 
 /**
+ * The management interface through which {@link HistogramDispatchMetrics} are exposed over JMX
+ *
  * @author Foundry
  */
-public interface Listener<L, E> {
-    void invoke(E event) throws Throwable;
+public interface DispatchMetricsMXBean {
+    Map<String, Long> getDispatchCounts();
 
-    L getListenerObject();
+    Map<String, Long> getUnheardCounts();
 
-    Class<? extends E> getEventType();
-}
\ No newline at end of file
+    List<ListenerStatistics> getListenerStatistics();
+}
@@ -0,0 +1,136 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.metrics.DispatchMetrics;
+import pw.stamina.causam.internal.implementations.common.DelegatingListener;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatch metrics kept in memory, with a latency histogram for every listener
+ * <p>
+ * Dispatch counts are kept per event class, and the statistics of a listener are kept for as long as the listener
+ * itself is reachable. The metrics can be read directly or {@link #registerMBean(String) exposed over JMX}.
+ *
+ * @author Foundry
+ */
+public class HistogramDispatchMetrics implements DispatchMetrics, DispatchMetricsMXBean {
+
+    private final Map<Class<?>, EventTypeCounters> eventTypeCounters = new ConcurrentHashMap<>();
+
+    private final ClassValue<EventTypeCounters> countersByType = new ClassValue<EventTypeCounters>() {
+        @Override
+        protected EventTypeCounters computeValue(Class<?> type) {
+            return eventTypeCounters.computeIfAbsent(type, t -> new EventTypeCounters());
+        }
+    };
+
+    private final Map<Listener<?, ?>, HistogramRecorder> listenerRecorders = new ConcurrentWeakHashMap<>();
+
+    @Override
+    public void recordDispatch(Class<?> eventType, int listenerCount) {
+        final EventTypeCounters counters = countersByType.get(eventType);
+        counters.dispatches.increment();
+        if (listenerCount == 0) counters.unheard.increment();
+    }
+
+    @Override
+    public ListenerRecorder forListener(Listener<?, ?> listener) {
+        return listenerRecorders.computeIfAbsent(DelegatingListener.unwrap(listener), HistogramRecorder::new);    //wrappers come and go with listener arrays
+    }
+
+    @Override
+    public Map<String, Long> getDispatchCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        eventTypeCounters.forEach((type, counters) -> counts.put(type.getName(), counters.dispatches.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getUnheardCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        eventTypeCounters.forEach((type, counters) -> counts.put(type.getName(), counters.unheard.sum()));
+        return counts;
+    }
+
+    @Override
+    public List<ListenerStatistics> getListenerStatistics() {
+        final List<ListenerStatistics> statistics = new ArrayList<>();
+        for (HistogramRecorder recorder : listenerRecorders.values()) {
+            statistics.add(new ListenerStatistics(recorder.listenerName, recorder.eventTypeName, recorder.failures.sum(), recorder.latencies));
+        }
+        return statistics;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, under the {@code pw.stamina.causam} domain
+     *
+     * @param name the name distinguishing these metrics from those of other buses
+     * @return the name under which the metrics were registered
+     * @throws JMException if the metrics could not be registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        final ObjectName objectName = new ObjectName("pw.stamina.causam:type=DispatchMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    private static final class EventTypeCounters {
+        final LongAdder dispatches = new LongAdder();
+
+        final LongAdder unheard = new LongAdder();
+    }
+
+    private static final class HistogramRecorder implements ListenerRecorder {
+        final String listenerName;    //the listener itself is not referenced, so that its statistics do not keep it alive
+
+        final String eventTypeName;
+
+        final LatencyHistogram latencies = new LatencyHistogram();
+
+        final LongAdder failures = new LongAdder();
+
+        HistogramRecorder(Listener<?, ?> listener) {
+            this.listenerName = String.valueOf(listener.getListenerObject());
+            this.eventTypeName = listener.getEventType().getName();
+        }
+
+        @Override
+        public void recordInvocation(long latencyNanos) {
+            latencies.record(latencyNanos);
+        }
+
+        @Override
+        public void recordFailure(Throwable cause) {
+            failures.increment();
+        }
+    }
+}
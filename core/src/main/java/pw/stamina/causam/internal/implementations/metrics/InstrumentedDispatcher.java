@@ -0,0 +1,155 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.api.metrics.DispatchMetrics;
+import pw.stamina.causam.internal.implementations.common.DelegatingListener;
+import pw.stamina.causam.internal.implementations.common.Order;
+import pw.stamina.causam.internal.util.ConcurrentWeakHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * A dispatcher timing every listener invocation of another dispatcher
+ * <p>
+ * Listeners are handed to the underlying dispatcher wrapped in timing listeners, which report to the
+ * {@link DispatchMetrics metrics} of the bus. Listener arrays found through
+ * {@link pw.stamina.causam.api.ListenerRegistry#findListenerArray findListenerArray} are shared between dispatches, so
+ * their wrapped counterparts are built once per array and reused for as long as the array is in use.
+ *
+ * @author Foundry
+ */
+public final class InstrumentedDispatcher<L, E> implements Dispatcher<L, E> {
+
+    private final Dispatcher<L, E> dispatcher;
+
+    private final DispatchMetrics metrics;
+
+    private final Map<Listener<L, E>[], Listener<L, E>[]> instrumentedArrays = new ConcurrentWeakHashMap<>();    //arrays compare by identity
+
+    public InstrumentedDispatcher(Dispatcher<L, E> dispatcher, DispatchMetrics metrics) {
+        this.dispatcher = dispatcher;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void dispatch(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, instrument(listeners), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatch(E event, Listener<L, E>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatch(event, instrument(listeners), exceptionHandlers);
+    }
+
+    @Override
+    public void dispatchAll(List<? extends E> events, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        dispatcher.dispatchAll(events, instrument(listeners), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+        return dispatcher.dispatchAsync(event, instrument(listeners), exceptionHandlers);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatchAsync(E event, Iterable<Listener<L, E>> listeners, Iterable<ExceptionHandler> exceptionHandlers, Executor executor) {
+        return dispatcher.dispatchAsync(event, instrument(listeners), exceptionHandlers, executor);
+    }
+
+    private Listener<L, E>[] instrument(Listener<L, E>[] listeners) {
+        return instrumentedArrays.computeIfAbsent(listeners, this::wrapAll);
+    }
+
+    private Iterable<Listener<L, E>> instrument(Iterable<Listener<L, E>> listeners) {
+        final List<Listener<L, E>> instrumented = new ArrayList<>();
+        for (Listener<L, E> listener : listeners) {
+            instrumented.add(new TimedListener<>(listener, metrics.forListener(listener)));
+        }
+        return instrumented;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Listener<L, E>[] wrapAll(Listener<L, E>[] listeners) {
+        final Listener<L, E>[] instrumented = Arrays.copyOf(listeners, listeners.length, Listener[].class);
+        for (int i = 0; i < instrumented.length; i++) {
+            instrumented[i] = new TimedListener<>(listeners[i], metrics.forListener(listeners[i]));
+        }
+        return instrumented;
+    }
+
+    private static final class TimedListener<L, E> implements DelegatingListener<L, E> {
+        private final Listener<L, E> listener;
+
+        private final DispatchMetrics.ListenerRecorder recorder;
+
+        TimedListener(Listener<L, E> listener, DispatchMetrics.ListenerRecorder recorder) {
+            this.listener = listener;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void invoke(E event) throws Throwable {
+            final long start = System.nanoTime();
+            try {
+                listener.invoke(event);
+            } catch (Throwable t) {
+                recorder.recordFailure(t);
+                throw t;
+            } finally {
+                recorder.recordInvocation(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public L getListenerObject() {
+            return listener.getListenerObject();
+        }
+
+        @Override
+        public Class<? extends E> getEventType() {
+            return listener.getEventType();
+        }
+
+        @Override
+        public Order getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public Predicate<? super E> getFilter() {
+            return listener.getFilter();
+        }
+
+        @Override
+        public Listener<L, E> getDelegate() {
+            return listener;
+        }
+    }
+}
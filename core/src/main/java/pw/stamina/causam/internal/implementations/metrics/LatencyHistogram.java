@@ -0,0 +1,102 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies with a bounded relative error, recorded without locking
+ * <p>
+ * Values are counted in buckets laid out like those of an HDR histogram: each power of two is split into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets, so every recorded value is accurate to within about three percent, and
+ * the whole range of non-negative longs fits in a fixed array. Recording increments a single bucket along with the
+ * running count, total and maximum.
+ *
+ * @author Foundry
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalValue = new AtomicLong();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;    //clock adjustments must not corrupt the histogram
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        final long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalValue.get() / count;
+    }
+
+    /**
+     * Gets the highest value which the specified percentage of the recorded values do not exceed, up to the precision of
+     * the histogram
+     */
+    public long getValueAtPercentile(double percentile) {
+        final long count = totalCount.get();
+        if (count == 0) return 0;
+        final long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestValueOf(i), getMax());
+        }
+        return getMax();    //recordings raced with this walk
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+        final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long lowestValueOf(int index) {
+        final int bucket = index / SUB_BUCKET_COUNT, subBucket = index % SUB_BUCKET_COUNT;
+        return bucket == 0 ? subBucket : (long) (SUB_BUCKET_COUNT + subBucket) << (bucket - 1);
+    }
+
+    static long highestValueOf(int index) {
+        return index + 1 < BUCKET_COUNT ? lowestValueOf(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
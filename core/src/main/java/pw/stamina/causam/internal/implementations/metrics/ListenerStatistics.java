@@ -0,0 +1,100 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+/**
+ * A point-in-time summary of the invocations of a single listener, with latencies in nanoseconds
+ *
+ * @author Foundry
+ */
+public final class ListenerStatistics {
+
+    private final String listener;
+
+    private final String eventType;
+
+    private final long invocations;
+
+    private final long failures;
+
+    private final double meanLatency;
+
+    private final long medianLatency;
+
+    private final long p99Latency;
+
+    private final long p999Latency;
+
+    private final long maxLatency;
+
+    ListenerStatistics(String listener, String eventType, long failures, LatencyHistogram latencies) {
+        this.listener = listener;
+        this.eventType = eventType;
+        this.invocations = latencies.getCount();
+        this.failures = failures;
+        this.meanLatency = latencies.getMean();
+        this.medianLatency = latencies.getValueAtPercentile(50);
+        this.p99Latency = latencies.getValueAtPercentile(99);
+        this.p999Latency = latencies.getValueAtPercentile(99.9);
+        this.maxLatency = latencies.getMax();
+    }
+
+    public String getListener() {
+        return listener;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    public long getMedianLatency() {
+        return medianLatency;
+    }
+
+    public long getP99Latency() {
+        return p99Latency;
+    }
+
+    public long getP999Latency() {
+        return p999Latency;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return listener + " [" + eventType + "]: " + invocations + " invocations, " + failures + " failures, mean " + (long) meanLatency
+                + "ns, p50 " + medianLatency + "ns, p99 " + p99Latency + "ns, p99.9 " + p999Latency + "ns, max " + maxLatency + "ns";
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A concurrent map holding its keys weakly, compared by {@link Object#equals(Object) equals} or optionally by identity
+ * <p>
+ * Mappings are stored in a {@link ConcurrentHashMap}, so reads never lock, writes only contend on a single bin, the size
+ * is kept in striped counters and {@link #computeIfAbsent(Object, Function) computeIfAbsent} runs its mapping function
+ * at most once per key. Entries whose key has been collected are expunged in small batches by subsequent operations.
+ * Null keys and values are not permitted.
+ *
+ * @author Foundry
+ */
+public class ConcurrentWeakHashMap<K, V> extends AbstractMap<K, V>
+        implements ConcurrentMap<K, V>, Serializable {
+    private static final long serialVersionUID = -4364426185735417381L;
+
+
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    static final int EXPUNGE_BATCH_SIZE = 64;
+
+
+    transient ConcurrentHashMap<Key<K>, V> map;
+
+    transient ReferenceQueue<K> refQueue;
+
+    transient Set<Entry<K,V>> entrySet;
+
+    final boolean identityKeys;
+
+
+    abstract static class Key<K> {
+        final int hash;
+
+        final boolean identity;
+
+        Key(Object key, boolean identity) {
+            this.hash = (identity ? System.identityHashCode(key) : key.hashCode());
+            this.identity = identity;
+        }
+
+        abstract K get();
+
+        @Override
+        public final boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final K key = get();
+            return key != null && (identity ? key == ((Key<?>) o).get() : key.equals(((Key<?>) o).get()));
+        }
+
+        @Override
+        public final int hashCode() {
+            return hash;
+        }
+    }
+
+    static final class WeakKey<K> extends Key<K> {
+        final WeakKeyReference<K> keyRef;
+
+        WeakKey(K key, ReferenceQueue<K> refQueue, boolean identity) {
+            super(key, identity);
+            this.keyRef = new WeakKeyReference<>(key, this, refQueue);
+        }
+
+        @Override
+        K get() {
+            return keyRef.get();
+        }
+    }
+
+    static final class WeakKeyReference<K> extends WeakReference<K> {
+        final WeakKey<K> owner;
+
+        WeakKeyReference(K key, WeakKey<K> owner, ReferenceQueue<K> refQueue) {
+            super(key, refQueue);
+            this.owner = owner;
+        }
+    }
+
+    static final class LookupKey<K> extends Key<K> {
+        final K key;
+
+        LookupKey(K key, boolean identity) {
+            super(key, identity);
+            this.key = key;
+        }
+
+        @Override
+        K get() {
+            return key;
+        }
+    }
+
+
+    /**
+     * @param identityKeys whether keys are compared by identity rather than {@link Object#equals(Object) equals}, for
+     *                     keys whose equality does not reflect which object is being mapped
+     */
+    public ConcurrentWeakHashMap(int initialCapacity,
+                                 float loadFactor, int concurrencyLevel, boolean identityKeys) {
+        if (!(loadFactor > 0) || initialCapacity < 0 || concurrencyLevel <= 0)
+            throw new IllegalArgumentException();
+
+        this.map = new ConcurrentHashMap<>(initialCapacity, loadFactor, concurrencyLevel);
+        this.refQueue = new ReferenceQueue<>();
+        this.identityKeys = identityKeys;
+    }
+
+    public ConcurrentWeakHashMap(int initialCapacity,
+                                 float loadFactor, int concurrencyLevel) {
+        this(initialCapacity, loadFactor, concurrencyLevel, false);
+    }
+
+    public ConcurrentWeakHashMap(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentWeakHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentWeakHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentWeakHashMap(boolean identityKeys) {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL, identityKeys);
+    }
+
+    public ConcurrentWeakHashMap(Map<? extends K, ? extends V> m) {
+        this(Math.max((int) (m.size() / DEFAULT_LOAD_FACTOR) + 1,
+                DEFAULT_INITIAL_CAPACITY),
+                DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+        putAll(m);
+    }
+
+
+    /**
+     * Removes at most a batch of entries whose keys have been collected, so that no single operation pays for clearing
+     * out a large number of them
+     */
+    final void expungeStaleEntries() {
+        Reference<? extends K> stale;
+        for (int i = 0; i < EXPUNGE_BATCH_SIZE && (stale = refQueue.poll()) != null; i++) {
+            map.remove(((WeakKeyReference<? extends K>) stale).owner);   //a collected key is only equal to itself
+        }
+    }
+
+    public boolean isEmpty() {
+        expungeStaleEntries();
+        return map.isEmpty();
+    }
+
+    public int size() {
+        expungeStaleEntries();
+        return map.size();
+    }
+
+    public V get(Object key) {
+        expungeStaleEntries();
+        return map.get(new LookupKey<>(key, identityKeys));
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    public boolean contains(Object value) {
+        return containsValue(value);
+    }
+
+    public V put(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeStaleEntries();
+        return map.put(new WeakKey<>(key, refQueue, identityKeys), value);
+    }
+
+    public V putIfAbsent(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeStaleEntries();
+        return map.putIfAbsent(new WeakKey<>(key, refQueue, identityKeys), value);
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        final V existing = get(key);    //present keys are answered without touching the bin lock
+        if (existing != null)
+            return existing;
+        return map.computeIfAbsent(new WeakKey<>(key, refQueue, identityKeys), k -> mappingFunction.apply(key));
+    }
+
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Entry<? extends K, ? extends V> e : m.entrySet())
+            put(e.getKey(), e.getValue());
+    }
+
+    public V remove(Object key) {
+        expungeStaleEntries();
+        return map.remove(new LookupKey<>(key, identityKeys));
+    }
+
+    public boolean remove(Object key, Object value) {
+        expungeStaleEntries();
+        return value != null && map.remove(new LookupKey<>(key, identityKeys), value);
+    }
+
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        expungeStaleEntries();
+        return map.replace(new LookupKey<>(key, identityKeys), oldValue, newValue);
+    }
+
+    public V replace(K key, V value) {
+        if (value == null)
+            throw new NullPointerException();
+        expungeStaleEntries();
+        return map.replace(new LookupKey<>(key, identityKeys), value);
+    }
+
+    public void clear() {
+        map.clear();
+        while (refQueue.poll() != null);
+    }
+
+    public Set<Entry<K,V>> entrySet() {
+        Set<Entry<K,V>> es = entrySet;
+        return (es != null) ? es : (entrySet = new EntrySet());
+    }
+
+    public Enumeration<K> keys() {
+        return Collections.enumeration(keySet());
+    }
+
+    public Enumeration<V> elements() {
+        return Collections.enumeration(values());
+    }
+
+
+    final class EntryIterator implements Iterator<Entry<K,V>> {
+        final Iterator<Entry<Key<K>, V>> delegate = map.entrySet().iterator();
+        Entry<K,V> nextEntry;
+        Entry<K,V> lastReturned;
+
+        EntryIterator() {
+            advance();
+        }
+
+        final void advance() {
+            nextEntry = null;
+            while (delegate.hasNext()) {
+                final Entry<Key<K>, V> e = delegate.next();
+                final K key = e.getKey().get();
+                if (key != null) {    //the strong reference keeps the key alive for as long as the entry is held
+                    nextEntry = new WriteThroughEntry(key, e.getValue());
+                    return;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        public Entry<K,V> next() {
+            if (nextEntry == null)
+                throw new NoSuchElementException();
+            lastReturned = nextEntry;
+            advance();
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+            ConcurrentWeakHashMap.this.remove(lastReturned.getKey());
+            lastReturned = null;
+        }
+    }
+
+    final class WriteThroughEntry extends SimpleEntry<K,V> {
+        private static final long serialVersionUID = -7900634345345313646L;
+
+        WriteThroughEntry(K k, V v) {
+            super(k,v);
+        }
+
+        public V setValue(V value) {
+            if (value == null) throw new NullPointerException();
+            V v = super.setValue(value);
+            ConcurrentWeakHashMap.this.put(getKey(), value);
+            return v;
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Entry<K,V>> {
+        public Iterator<Entry<K,V>> iterator() {
+            return new EntryIterator();
+        }
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?,?> e = (Entry<?,?>)o;
+            V v = ConcurrentWeakHashMap.this.get(e.getKey());
+            return v != null && v.equals(e.getValue());
+        }
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?,?> e = (Entry<?,?>)o;
+            return ConcurrentWeakHashMap.this.remove(e.getKey(), e.getValue());
+        }
+        public int size() {
+            return ConcurrentWeakHashMap.this.size();
+        }
+        public boolean isEmpty() {
+            return ConcurrentWeakHashMap.this.isEmpty();
+        }
+        public void clear() {
+            ConcurrentWeakHashMap.this.clear();
+        }
+    }
+
+
+    private void writeObject(java.io.ObjectOutputStream s) throws IOException  {
+        s.defaultWriteObject();
+
+        for (Entry<K, V> e : entrySet()) {
+            s.writeObject(e.getKey());
+            s.writeObject(e.getValue());
+        }
+        s.writeObject(null);
+        s.writeObject(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream s)
+            throws IOException, ClassNotFoundException  {
+        s.defaultReadObject();
+
+        map = new ConcurrentHashMap<>();
+        refQueue = new ReferenceQueue<>();
+
+        for (;;) {
+            K key = (K) s.readObject();
+            V value = (V) s.readObject();
+            if (key == null)
+                break;
+            put(key, value);
+        }
+    }
+}
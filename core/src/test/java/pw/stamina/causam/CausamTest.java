@@ -0,0 +1,73 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam;
+
+import org.junit.Test;
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.configuration.Configurations;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.metrics.HistogramDispatchMetrics;
+import pw.stamina.causam.internal.implementations.metrics.ListenerStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CausamTest {
+
+    @Test
+    public void customizedPresetsReplayStickyEvents() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.cachingAnnotated(),
+                builder -> builder.withStickyEvents(String.class));
+        bus.dispatch("sticky");
+        bus.dispatch(1);
+
+        final Container container = new Container();
+        bus.register(container);
+        bus.dispatch("fresh");
+
+        assertEquals("[sticky, fresh]", container.received.toString());
+    }
+
+    @Test
+    public void customizedPresetsReportToMetrics() {
+        final HistogramDispatchMetrics metrics = new HistogramDispatchMetrics();
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated(),
+                builder -> builder.withMetrics(metrics));
+        bus.register(new Container());
+        bus.dispatch("heard");
+        bus.dispatch(1);
+
+        assertEquals(Long.valueOf(1), metrics.getDispatchCounts().get(String.class.getName()));
+        assertEquals(Long.valueOf(1), metrics.getUnheardCounts().get(Integer.class.getName()));
+        final List<ListenerStatistics> statistics = metrics.getListenerStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals(1, statistics.get(0).getInvocations());
+    }
+
+    public static class Container {
+        final List<Object> received = new ArrayList<>();
+
+        @Reactive
+        public void onEvent(String event) {
+            received.add(event);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam;
+
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A listener appending its name and every event it receives to a shared log, for testing dispatchers without a
+ * registry
+ */
+public class RecordingListener<E> implements Listener<Object, E> {
+    private final String name;
+
+    private final List<String> log;
+
+    private Order priority = Order.DEFAULT;
+
+    private Predicate<? super E> filter;
+
+    private Consumer<? super E> action = event -> {};
+
+    public RecordingListener(String name, List<String> log) {
+        this.name = name;
+        this.log = log;
+    }
+
+    public RecordingListener<E> withPriority(Order priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public RecordingListener<E> withFilter(Predicate<? super E> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Sets an action run after the event has been logged, such as throwing or blocking
+     */
+    public RecordingListener<E> onInvoke(Consumer<? super E> action) {
+        this.action = action;
+        return this;
+    }
+
+    @Override
+    public void invoke(E event) {
+        log.add(name + ":" + event);
+        action.accept(event);
+    }
+
+    @Override
+    public Object getListenerObject() {
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends E> getEventType() {
+        return (Class<? extends E>) Object.class;
+    }
+
+    @Override
+    public Order getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Predicate<? super E> getFilter() {
+        return filter;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
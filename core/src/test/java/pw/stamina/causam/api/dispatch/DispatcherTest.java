@@ -0,0 +1,92 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.api.dispatch;
+
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.exception.DispatchException;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.internal.implementations.common.BasicDispatcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DispatcherTest {
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private final Dispatcher<Object, String> dispatcher = new BasicDispatcher<>();
+
+    @Test
+    public void asynchronousDispatchCompletesOnceEveryListenerRan() throws Exception {
+        final CompletableFuture<Void> future = dispatcher.dispatchAsync("event", listeners(
+                new RecordingListener<>("a", log), new RecordingListener<>("b", log)), Collections.emptyList());
+
+        future.get();
+        assertEquals("[a:event, b:event]", log.toString());
+    }
+
+    @Test
+    public void asynchronousDispatchFailsWithTheListenerFailure() throws Exception {
+        final List<Throwable> handled = new CopyOnWriteArrayList<>();
+        final ExceptionHandler handler = context -> handled.add(context.getCause());
+        final CompletableFuture<Void> future = dispatcher.dispatchAsync("event", listeners(
+                new RecordingListener<String>("failing", log).onInvoke(event -> { throw new IllegalStateException(event); }),
+                new RecordingListener<>("after", log)), Collections.singletonList(handler));
+
+        try {
+            future.get();
+            fail("the listener failure should fail the future");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DispatchException);
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+        assertEquals("[failing:event, after:event]", log.toString());
+        assertEquals(1, handled.size());
+    }
+
+    @Test
+    public void rejectedAsynchronousDispatchFailsTheFuture() throws Exception {
+        final CompletableFuture<Void> future = dispatcher.dispatchAsync("event", listeners(new RecordingListener<>("a", log)),
+                Collections.emptyList(), task -> { throw new RejectedExecutionException("shut down"); });
+
+        try {
+            future.get();
+            fail("the rejection should fail the future");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertTrue(log.isEmpty());
+    }
+
+    @SafeVarargs
+    private static Iterable<Listener<Object, String>> listeners(Listener<Object, String>... listeners) {
+        return Arrays.asList(listeners);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.bus;
+
+import org.junit.Test;
+import pw.stamina.causam.Causam;
+import pw.stamina.causam.api.DeadEvent;
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.KeyedEvent;
+import pw.stamina.causam.api.KeyedSubscriber;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.configuration.ConfigurationBuilder;
+import pw.stamina.causam.api.configuration.Configurations;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.internal.implementations.annotated.Keyed;
+import pw.stamina.causam.internal.implementations.annotated.Ordered;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.annotated.method.AnnotatedMethodListenerRegistry;
+import pw.stamina.causam.internal.implementations.annotated.method.transformer.ReflectionMethodTransformer;
+import pw.stamina.causam.internal.implementations.common.BasicDispatcher;
+import pw.stamina.causam.internal.implementations.common.BasicExceptionHandler;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ComposedEventBusTest {
+
+    @Test
+    public void unheardEventsAreRedispatchedAsDeadEvents() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated(),
+                builder -> builder.withDeadEvents(DeadEvent::new));
+        final DeadEventContainer container = new DeadEventContainer();
+        bus.register(container);
+        bus.dispatch(1);
+
+        assertEquals("[1]", container.received.toString());
+        assertEquals(1, bus.getDeadEventCount(Integer.class));
+        assertEquals(0, bus.getDeadEventCount(DeadEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void deadEventsOutsideTheEventTypeAreDropped() {
+        final Function<Number, Number> deadEvents = (Function) (Function<Object, Object>) DeadEvent::new;
+        final EventBus<Object, Number> bus = Causam.makeBus(Object.class, Number.class, Configurations.defaultAnnotated(),
+                builder -> builder.withDeadEvents(deadEvents));
+        bus.dispatch(1);
+        bus.dispatchAsync(2).join();
+
+        assertEquals(2, bus.getDeadEventCount(Integer.class));
+    }
+
+    @Test
+    public void batchesLookUpListenersOncePerEventClass() {
+        final Map<Class<?>, Integer> lookups = new HashMap<>();
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, (c, e) -> ConfigurationBuilder.from(c, Method.class, e)
+                .usingRegistry(new AnnotatedMethodListenerRegistry<Object, Object>(e, false) {
+                    @Override
+                    public Optional<Iterable<Listener<Method, Object>>> findListeners(Object event) {
+                        lookups.merge(event.getClass(), 1, Integer::sum);
+                        return super.findListeners(event);
+                    }
+                })
+                .usingDispatcher(new BasicDispatcher<>())
+                .withExceptionHandling(BasicExceptionHandler.getInstance()));
+        final BatchContainer container = new BatchContainer();
+        bus.register(container);
+
+        bus.dispatchAll(Arrays.asList("a", 1, "b", 2L, "c", 3));
+
+        assertEquals(Integer.valueOf(1), lookups.get(String.class));
+        assertEquals(Integer.valueOf(1), lookups.get(Integer.class));
+        assertEquals(Integer.valueOf(1), lookups.get(Long.class));
+        assertEquals("[string:a, string:b, string:c]", container.received.subList(0, 3).toString());
+        assertEquals(Arrays.asList("integer:1", "integer:3"), filter(container.received, "integer:"));
+        assertEquals(1, bus.getDeadEventCount(Long.class));
+    }
+
+    @Test
+    public void batchesRunEachListenerOverTheWholeBatch() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        final BatchContainer container = new BatchContainer();
+        bus.register(container);
+
+        bus.dispatchAll(Arrays.asList("a", "b"));
+
+        assertEquals("[string:a, string:b, object:a, object:b]", container.received.toString());
+    }
+
+    @Test
+    public void invokerFallbackIsReportedOnceToTheExceptionHandlers() {
+        final List<Throwable> reported = new ArrayList<>();
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, (c, e) -> ConfigurationBuilder.from(c, Method.class, e)
+                .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, false))
+                .usingDispatcher(new BasicDispatcher<>())
+                .withExceptionHandling(context -> reported.add(context.getCause())));
+        bus.register(new BatchContainer());
+        bus.register(new BatchContainer());
+
+        final List<Throwable> expected = new ArrayList<>();
+        ReflectionMethodTransformer.getPrivilegedLookupFailure().ifPresent(expected::add);
+        assertEquals(expected, reported);
+    }
+
+    @Test
+    public void stickyEventsAreReplayedToContainersOnRegistration() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated(),
+                builder -> builder.withStickyEvents(String.class));
+        final BatchContainer early = new BatchContainer();
+        bus.register(early);
+        bus.dispatch("a");
+        bus.dispatch("b");
+        bus.dispatch(1);
+
+        final BatchContainer late = new BatchContainer();
+        bus.register(late);
+
+        assertEquals("[string:b, object:b]", late.received.toString());
+        assertEquals(5, early.received.size());
+    }
+
+    @Test
+    public void keyedEventsOnlyReachListenersSubscribedToTheirKey() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        final KeyedContainer first = new KeyedContainer("first");
+        final KeyedContainer second = new KeyedContainer("second");
+        bus.register(first);
+        bus.register(second);
+
+        bus.dispatch(new Update("first", 1));
+        bus.dispatchAll(Arrays.asList(new Update("second", 2), new Update("first", 3), new Update("third", 4)));
+
+        assertEquals("[keyed:1, any:1, any:2, keyed:3, any:3, any:4]", first.received.toString());
+        assertEquals("[any:1, keyed:2, any:2, any:3, any:4]", second.received.toString());
+    }
+
+    @Test
+    public void dispatchHandsTheListenerArrayToTheDispatcher() {
+        final List<String> dispatched = new ArrayList<>();
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, (c, e) -> ConfigurationBuilder.from(c, Method.class, e)
+                .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, false))
+                .usingDispatcher(new Dispatcher<Method, Object>() {
+                    @Override
+                    public void dispatch(Object event, Iterable<Listener<Method, Object>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+                        dispatched.add("iterable:" + event);
+                    }
+
+                    @Override
+                    public void dispatch(Object event, Listener<Method, Object>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+                        dispatched.add("array:" + event + ":" + listeners.length);
+                    }
+                })
+                .withExceptionHandling(BasicExceptionHandler.getInstance()));
+        bus.register(new BatchContainer());
+
+        bus.dispatch("a");
+        bus.dispatch(1L);
+
+        assertEquals("[array:a:2]", dispatched.toString());
+    }
+
+    @Test
+    public void hasListenersOnlyConsidersTheClassAndItsSupertypes() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        assertFalse(bus.hasListeners(String.class));
+        bus.register(new BatchContainer());
+
+        assertTrue(bus.hasListeners(String.class));
+        assertTrue(bus.hasListeners(Integer.class));
+        assertFalse(bus.hasListeners(CharSequence.class));
+        assertFalse(bus.hasListeners(Number.class));
+        assertFalse(bus.hasListeners(Long.class));
+    }
+
+    private static List<String> filter(List<String> entries, String prefix) {
+        return entries.stream().filter(entry -> entry.startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    public static class BatchContainer {
+        final List<String> received = new ArrayList<>();
+
+        @Reactive
+        @Ordered(Order.FIRST)
+        public void onString(String event) {
+            received.add("string:" + event);
+        }
+
+        @Reactive
+        public void onInteger(Integer event) {
+            received.add("integer:" + event);
+        }
+
+        @Reactive
+        @Ordered(Order.LAST)
+        public void onObject(String event) {
+            received.add("object:" + event);
+        }
+    }
+
+    public static class DeadEventContainer {
+        final List<Object> received = new ArrayList<>();
+
+        @Reactive
+        public void onDeadEvent(DeadEvent event) {
+            received.add(event.getEvent());
+        }
+    }
+
+    public static class Update implements KeyedEvent {
+        final Object key;
+        final int value;
+
+        Update(Object key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Object getRoutingKey() {
+            return key;
+        }
+    }
+
+    public static class KeyedContainer implements KeyedSubscriber {
+        final Object key;
+        final List<String> received = new ArrayList<>();
+
+        KeyedContainer(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getSubscriptionKey() {
+            return key;
+        }
+
+        @Reactive
+        @Keyed
+        @Ordered(Order.FIRST)
+        public void onKeyedUpdate(Update update) {
+            received.add("keyed:" + update.value);
+        }
+
+        @Reactive
+        public void onUpdate(Update update) {
+            received.add("any:" + update.value);
+        }
+    }
+}
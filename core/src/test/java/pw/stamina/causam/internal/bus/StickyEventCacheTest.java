@@ -0,0 +1,78 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package pw.stamina.causam.internal.bus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StickyEventCacheTest {
+
+    @Test
+    public void replaysNothingBeforeAnEventIsRecorded() {
+        final StickyEventCache<Object> cache = new StickyEventCache<>(Arrays.asList(String.class, Integer.class));
+
+        assertTrue(replay(cache).isEmpty());
+    }
+
+    @Test
+    public void laterEventsEvictEarlierOnesOfTheirType() {
+        final StickyEventCache<Object> cache = new StickyEventCache<>(Arrays.asList(String.class, Integer.class));
+        cache.record("a");
+        cache.record(1);
+        cache.record("b");
+
+        assertEquals(Arrays.<Object>asList("b", 1), replay(cache));
+    }
+
+    @Test
+    public void eventsOfSubtypesEvictEventsOfTheirStickySupertypes() {
+        final StickyEventCache<Object> cache = new StickyEventCache<>(Arrays.asList(Number.class, Integer.class));
+        cache.record(1);
+        cache.record(2L);
+
+        assertEquals(Arrays.<Object>asList(2L, 1), replay(cache));
+    }
+
+    @Test
+    public void eventsRecordedForSeveralTypesAreReplayedOnce() {
+        final StickyEventCache<Object> cache = new StickyEventCache<>(Arrays.asList(Number.class, Integer.class));
+        cache.record(1);
+
+        assertEquals(Arrays.<Object>asList(1), replay(cache));
+    }
+
+    @Test
+    public void eventsOfOtherTypesAreNotRecorded() {
+        final StickyEventCache<Object> cache = new StickyEventCache<>(Arrays.asList(String.class));
+        cache.record(1);
+
+        assertTrue(replay(cache).isEmpty());
+    }
+
+    private static List<Object> replay(StickyEventCache<Object> cache) {
+        final List<Object> replayed = new ArrayList<>();
+        cache.forEachRecorded(replayed::add);
+        return replayed;
+    }
+}
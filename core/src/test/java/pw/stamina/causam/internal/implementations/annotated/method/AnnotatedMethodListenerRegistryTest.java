@@ -0,0 +1,461 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import org.junit.Test;
+import pw.stamina.causam.Causam;
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.KeyedEvent;
+import pw.stamina.causam.api.KeyedSubscriber;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.configuration.Configurations;
+import pw.stamina.causam.internal.implementations.annotated.Filtered;
+import pw.stamina.causam.internal.implementations.annotated.Keyed;
+import pw.stamina.causam.internal.implementations.annotated.Ordered;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AnnotatedMethodListenerRegistryTest {
+
+    @Test
+    public void cachingRegistryBindsEqualContainersSeparately() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.cachingAnnotated());
+        final EqualContainer first = new EqualContainer();
+        final EqualContainer second = new EqualContainer();
+
+        assertTrue(bus.register(first));
+        assertTrue(bus.register(second));
+        bus.dispatch("both");
+
+        assertTrue(bus.unregister(first));
+        bus.dispatch("second");
+
+        assertEquals("[both]", first.received.toString());
+        assertEquals("[both, second]", second.received.toString());
+        assertFalse(bus.unregister(first));
+        assertTrue(bus.unregister(second));
+    }
+
+    @Test
+    public void cachingRegistryReusesListenersOfReregisteredContainers() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.cachingAnnotated());
+        final EqualContainer container = new EqualContainer();
+
+        assertTrue(bus.register(container));
+        assertTrue(bus.unregister(container));
+        assertTrue(bus.register(container));
+        bus.dispatch("event");
+
+        assertEquals("[event]", container.received.toString());
+    }
+
+    @Test
+    public void cachingRegistryKeepsListenersOfLiveContainersAcrossCollections() throws InterruptedException {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, true);
+        final EqualContainer container = new EqualContainer();
+
+        registry.register(container);
+        final Listener<Method, Object> first = registry.findListenerArray("event")[0];
+        registry.unregister(container);
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        registry.register(container);
+
+        assertSame(first, registry.findListenerArray("event")[0]);
+    }
+
+    @Test
+    public void cachingRegistryLetsUnregisteredContainersBeCollected() throws InterruptedException {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.cachingAnnotated());
+        EqualContainer container = new EqualContainer();
+        final WeakReference<EqualContainer> reference = new WeakReference<>(container);
+
+        bus.register(container);
+        bus.dispatch("event");
+        bus.unregister(container);
+        container = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    @Test
+    public void weakRegistryDropsListenersOfCollectedContainers() throws InterruptedException {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, true, true);
+        EqualContainer container = new EqualContainer();
+        final WeakReference<EqualContainer> reference = new WeakReference<>(container);
+        registry.register(container);
+        assertEquals(1, registry.findListenerArray("event").length);
+        container = null;
+
+        for (int i = 0; i < 50 && registry.findListenerArray("event").length > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertEquals(0, registry.findListenerArray("event").length);
+        assertFalse(registry.hasListeners(String.class));
+    }
+
+    @Test
+    public void weakRegistryKeepsListenersOfLiveContainers() throws InterruptedException {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.weakAnnotated());
+        final EqualContainer first = new EqualContainer();
+        final EqualContainer second = new EqualContainer();
+        bus.register(first);
+        bus.register(second);
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        bus.dispatch("both");
+        assertTrue(bus.unregister(first));
+        assertFalse(bus.unregister(first));
+        bus.dispatch("second");
+
+        assertEquals("[both]", first.received.toString());
+        assertEquals("[both, second]", second.received.toString());
+    }
+
+    @Test
+    public void strongRegistryKeepsRegisteredContainersReachable() throws InterruptedException {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, false);
+        EqualContainer container = new EqualContainer();
+        final WeakReference<EqualContainer> reference = new WeakReference<>(container);
+        registry.register(container);
+        container = null;
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNotNull(reference.get());
+        assertEquals(1, registry.findListenerArray("event").length);
+    }
+
+    @Test
+    public void indexedRegistryResolvesHierarchiesAndRegistrationChanges() {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, true, false, true);
+        final EqualContainer strings = new EqualContainer();
+        final HierarchyContainer hierarchy = new HierarchyContainer();
+
+        assertEquals(0, registry.findListenerArray("event").length);
+        registry.register(strings);
+        registry.register(hierarchy);
+        assertEquals(4, registry.findListenerArray("event").length);
+        assertEquals(2, registry.findListenerArray(new StringBuilder()).length);
+        assertTrue(registry.hasListeners(String.class));
+        registry.unregister(strings);
+        assertEquals(3, registry.findListenerArray("event").length);
+        registry.unregister(hierarchy);
+        assertEquals(0, registry.findListenerArray("event").length);
+        assertFalse(registry.hasListeners(String.class));
+    }
+
+    @Test
+    public void indexedRegistryGrowsPastItsInitialCapacity() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.indexedAnnotated());
+        final HierarchyContainer container = new HierarchyContainer();
+        bus.register(container);
+
+        for (int dimensions = 1; dimensions <= 100; dimensions++) {    //every array dimension is a distinct event class
+            bus.dispatch(Array.newInstance(String.class, new int[dimensions]));
+        }
+        bus.dispatch("event");
+
+        assertEquals(103, container.received.size());
+        assertEquals("[string:event, chars:event, object:event]", container.received.subList(100, 103).toString());
+    }
+
+    @Test
+    public void keyedListenersCountTowardsTheirEventTypeAndItsSubtypes() {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, false);
+        final KeyedContainer first = new KeyedContainer(1);
+        final KeyedContainer second = new KeyedContainer(2);
+
+        assertFalse(registry.hasListeners(Update.class));
+        registry.register(first);
+        registry.register(second);
+        assertTrue(registry.hasListeners(Update.class));
+        assertTrue(registry.hasListeners(SubUpdate.class));
+        assertFalse(registry.hasListeners(String.class));
+
+        registry.unregister(first);
+        assertTrue(registry.hasListeners(SubUpdate.class));
+        registry.unregister(second);
+        assertFalse(registry.hasListeners(Update.class));
+        assertFalse(registry.hasListeners(SubUpdate.class));
+    }
+
+    @Test
+    public void filtersDoNotReorderListenersOfEqualPriority() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        final List<String> log = new ArrayList<>();
+
+        bus.register(new LengthFilteredContainer("first", log));
+        bus.register(new UnfilteredContainer("second", log));
+        bus.register(new PrefixFilteredContainer("third", log));
+        bus.dispatch("apple");
+
+        assertEquals("[first, second, third]", log.toString());
+    }
+
+    @Test
+    public void eventsReachListenersOfTheirSuperclassesAndInterfaces() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        final HierarchyContainer container = new HierarchyContainer();
+        bus.register(container);
+
+        bus.dispatch("a");
+        bus.dispatch(new StringBuilder("b"));
+        bus.dispatch(1);
+
+        assertEquals("[string:a, chars:a, object:a, chars:b, object:b, object:1]", container.received.toString());
+    }
+
+    @Test
+    public void resolvedHierarchiesFollowRegistrationChanges() {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, false);
+        final EqualContainer strings = new EqualContainer();
+        final HierarchyContainer hierarchy = new HierarchyContainer();
+
+        registry.register(strings);
+        assertEquals(1, registry.findListenerArray("event").length);
+        registry.register(hierarchy);
+        assertEquals(4, registry.findListenerArray("event").length);
+        assertEquals(2, registry.findListenerArray(new StringBuilder()).length);
+        registry.unregister(strings);
+        assertEquals(3, registry.findListenerArray("event").length);
+        registry.unregister(hierarchy);
+        assertEquals(0, registry.findListenerArray("event").length);
+    }
+
+    @Test
+    public void listenersAreOrderedByPriorityAcrossTypesThenByBindOrder() {
+        final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, Configurations.defaultAnnotated());
+        final List<String> log = new ArrayList<>();
+
+        bus.register(new LateContainer("late", log));
+        bus.register(new UnfilteredContainer("default", log));
+        bus.register(new FirstObjectContainer("first", log));
+        bus.register(new LateContainer("later", log));
+        bus.dispatch("event");
+
+        assertEquals("[first, default, late, later]", log.toString());
+    }
+
+    @Test
+    public void listenersCarryThePriorityOfTheirMethod() {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, false);
+        registry.register(new LateContainer("late", new ArrayList<>()));
+        registry.register(new FirstObjectContainer("first", new ArrayList<>()));
+
+        final Listener<Method, Object>[] listeners = registry.findListenerArray("event");
+        assertEquals(Order.FIRST, listeners[0].getPriority());
+        assertEquals(Order.LATE, listeners[1].getPriority());
+    }
+
+    @Test
+    public void listenerArraysAreSharedBetweenLookupsUntilRegistrationChanges() {
+        final AnnotatedMethodListenerRegistry<Object, Object> registry = new AnnotatedMethodListenerRegistry<>(Object.class, false);
+        assertSame(registry.findListenerArray("event"), registry.findListenerArray("other"));
+
+        final EqualContainer container = new EqualContainer();
+        registry.register(container);
+        final Listener<Method, Object>[] listeners = registry.findListenerArray("event");
+        assertSame(listeners, registry.findListenerArray("other"));
+
+        registry.unregister(container);
+        assertEquals(0, registry.findListenerArray("event").length);
+        assertEquals(1, listeners.length);
+    }
+
+    public static class EqualContainer {
+        final List<Object> received = new ArrayList<>();
+
+        @Reactive
+        public void onEvent(String event) {
+            received.add(event);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EqualContainer;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    public static class Update implements KeyedEvent {
+        @Override
+        public Object getRoutingKey() {
+            return 1;
+        }
+    }
+
+    public static class SubUpdate extends Update {}
+
+    public static class KeyedContainer implements KeyedSubscriber {
+        private final int key;
+
+        KeyedContainer(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getSubscriptionKey() {
+            return key;
+        }
+
+        @Reactive
+        @Keyed
+        public void onUpdate(Update update) {}
+    }
+
+    public static class UnfilteredContainer {
+        final String name;
+        final List<String> log;
+
+        UnfilteredContainer(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Reactive
+        public void onEvent(String event) {
+            log.add(name);
+        }
+    }
+
+    public static class LengthFilteredContainer extends UnfilteredContainer {
+        LengthFilteredContainer(String name, List<String> log) {
+            super(name, log);
+        }
+
+        @Reactive
+        @Filtered(NotEmpty.class)
+        @Override
+        public void onEvent(String event) {
+            super.onEvent(event);
+        }
+    }
+
+    public static class PrefixFilteredContainer extends UnfilteredContainer {
+        PrefixFilteredContainer(String name, List<String> log) {
+            super(name, log);
+        }
+
+        @Reactive
+        @Filtered(StartsWithA.class)
+        @Override
+        public void onEvent(String event) {
+            super.onEvent(event);
+        }
+    }
+
+    public static class NotEmpty implements Predicate<String> {
+        @Override
+        public boolean test(String event) {
+            return !event.isEmpty();
+        }
+    }
+
+    public static class StartsWithA implements Predicate<String> {
+        @Override
+        public boolean test(String event) {
+            return event.startsWith("a");
+        }
+    }
+
+    public static class HierarchyContainer {
+        final List<String> received = new ArrayList<>();
+
+        @Reactive
+        @Ordered(Order.FIRST)
+        public void onString(String event) {
+            received.add("string:" + event);
+        }
+
+        @Reactive
+        public void onCharSequence(CharSequence event) {
+            received.add("chars:" + event);
+        }
+
+        @Reactive
+        @Ordered(Order.LAST)
+        public void onObject(Object event) {
+            received.add("object:" + event);
+        }
+    }
+
+    public static class LateContainer {
+        final String name;
+        final List<String> log;
+
+        LateContainer(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Reactive
+        @Ordered(Order.LATE)
+        public void onEvent(String event) {
+            log.add(name);
+        }
+    }
+
+    public static class FirstObjectContainer {
+        final String name;
+        final List<String> log;
+
+        FirstObjectContainer(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Reactive
+        @Ordered(Order.FIRST)
+        public void onEvent(Object event) {
+            log.add(name);
+        }
+    }
+}
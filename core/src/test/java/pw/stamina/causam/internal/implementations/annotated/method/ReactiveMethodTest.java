@@ -0,0 +1,140 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method;
+
+import org.junit.Test;
+import pw.stamina.causam.internal.implementations.annotated.Filtered;
+import pw.stamina.causam.internal.implementations.annotated.Ordered;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.common.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ReactiveMethodTest {
+
+    private static final List<Object> STATIC_RECEIVED = new ArrayList<>();
+
+    @Test
+    public void handleInvokersCallInstanceMethodsWithoutPrivilegedLookup() throws Throwable {
+        final Container container = new Container();
+        ReactiveMethod.handleInvoker(Container.class.getMethod("onEvent", String.class)).invoke(container, "public");
+        ReactiveMethod.handleInvoker(Container.class.getDeclaredMethod("onPrivateEvent", String.class)).invoke(container, "private");
+        ReactiveMethod.handleInvoker(Container.class.getMethod("onEventReturning", String.class)).invoke(container, "returning");
+        assertEquals("[public, private, returning]", container.received.toString());
+    }
+
+    @Test
+    public void handleInvokersIgnoreTheContainerOfStaticMethods() throws Throwable {
+        STATIC_RECEIVED.clear();
+        ReactiveMethod.handleInvoker(Container.class.getMethod("onStaticEvent", String.class)).invoke(new Container(), "static");
+        assertEquals("[static]", STATIC_RECEIVED.toString());
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void handleInvokersRejectEventsOfTheWrongType() throws Throwable {
+        ReactiveMethod.handleInvoker(Container.class.getMethod("onEvent", String.class)).invoke(new Container(), 1);
+    }
+
+    @Test
+    public void metadataIsResolvedOncePerContainerClass() {
+        assertSame(ReactiveMethod.of(ScannedContainer.class), ReactiveMethod.of(ScannedContainer.class));
+    }
+
+    @Test
+    public void metadataCoversOnlyReactiveMethodsWithOneParameter() {
+        final Map<String, ReactiveMethod> methods = Arrays.stream(ReactiveMethod.of(ScannedContainer.class))
+                .collect(Collectors.toMap(method -> method.getMethod().getName(), method -> method));
+
+        assertEquals(new HashSet<>(Arrays.asList("onEvent", "onFilteredEvent", "onOtherFilteredEvent")), methods.keySet());
+        assertEquals(Order.DEFAULT, methods.get("onEvent").getPriority());
+        assertEquals(Order.LATE, methods.get("onFilteredEvent").getPriority());
+        assertEquals(String.class, methods.get("onFilteredEvent").getEventType());
+        assertNull(methods.get("onEvent").getFilter());
+        assertFalse(methods.get("onEvent").isKeyed());
+    }
+
+    @Test
+    public void methodsNamingTheSameFilterShareItsInstance() {
+        final Map<String, ReactiveMethod> methods = Arrays.stream(ReactiveMethod.of(ScannedContainer.class))
+                .collect(Collectors.toMap(method -> method.getMethod().getName(), method -> method));
+
+        assertNotNull(methods.get("onFilteredEvent").getFilter());
+        assertSame(methods.get("onFilteredEvent").getFilter(), methods.get("onOtherFilteredEvent").getFilter());
+    }
+
+    public static class Container {
+        final List<Object> received = new ArrayList<>();
+
+        public void onEvent(String event) {
+            received.add(event);
+        }
+
+        private void onPrivateEvent(String event) {
+            received.add(event);
+        }
+
+        public String onEventReturning(String event) {
+            received.add(event);
+            return event;
+        }
+
+        public static void onStaticEvent(String event) {
+            STATIC_RECEIVED.add(event);
+        }
+    }
+
+    public static class ScannedContainer {
+        @Reactive
+        public void onEvent(String event) {}
+
+        @Reactive
+        @Ordered(Order.LATE)
+        @Filtered(NotEmpty.class)
+        public void onFilteredEvent(String event) {}
+
+        @Reactive
+        @Filtered(NotEmpty.class)
+        public void onOtherFilteredEvent(CharSequence event) {}
+
+        @Reactive
+        public void onTwoEvents(String first, String second) {}
+
+        public void onUnannotatedEvent(String event) {}
+    }
+
+    public static class NotEmpty implements Predicate<CharSequence> {
+        @Override
+        public boolean test(CharSequence event) {
+            return event.length() > 0;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.annotated.method.transformer;
+
+import org.junit.Test;
+import pw.stamina.causam.internal.implementations.annotated.method.MethodInvoker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Exercises the transformations used when no privileged lookup object could be acquired, whatever the JDK running the
+ * tests allows
+ */
+public class ReflectionMethodTransformerTest {
+
+    @Test
+    public void transformsPublicMethodsWithoutPrivilegedLookup() throws Throwable {
+        final Target target = new Target();
+        final Consumer<String> bound = ReflectionMethodTransformer.transformProxied(Consumer.class, target, Target.class.getMethod("record", String.class));
+        bound.accept("bound");
+
+        final MethodInvoker unbound = ReflectionMethodTransformer.transformUnboundProxied(MethodInvoker.class, Target.class.getMethod("record", String.class));
+        unbound.invoke(target, "unbound");
+
+        assertEquals("[bound, unbound]", target.received.toString());
+    }
+
+    @Test
+    public void transformsNonPublicMethodsWithoutPrivilegedLookup() throws Throwable {
+        final Target target = new Target();
+        final MethodInvoker packageLocal = ReflectionMethodTransformer.transformUnboundProxied(MethodInvoker.class, Target.class.getDeclaredMethod("recordPackageLocal", String.class));
+        packageLocal.invoke(target, "package-local");
+
+        final MethodInvoker privateMethod = ReflectionMethodTransformer.transformUnboundProxied(MethodInvoker.class, Target.class.getDeclaredMethod("recordPrivate", String.class));
+        privateMethod.invoke(target, "private");
+
+        assertEquals("[package-local, private]", target.received.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void transformsStaticMethodsAndCapturedStateWithoutPrivilegedLookup() throws Throwable {
+        final Function<String, String> concatenation = ReflectionMethodTransformer.transformProxied(Function.class, null,
+                Target.class.getMethod("concatenate", String.class, String.class), "captured-");
+        assertEquals("captured-argument", concatenation.apply("argument"));
+
+        final BiFunction<String, String, String> uncaptured = ReflectionMethodTransformer.transformProxied(BiFunction.class, null,
+                Target.class.getMethod("concatenate", String.class, String.class));
+        assertEquals("ab", uncaptured.apply("a", "b"));
+    }
+
+    @Test(expected = MethodTransformationException.class)
+    public void rejectsMissingInstanceWithoutPrivilegedLookup() throws NoSuchMethodException {
+        ReflectionMethodTransformer.transformProxied(Consumer.class, null, Target.class.getMethod("record", String.class));
+    }
+
+    public static class Target {
+        final List<String> received = new ArrayList<>();
+
+        public void record(String value) {
+            received.add(value);
+        }
+
+        void recordPackageLocal(String value) {
+            received.add(value);
+        }
+
+        private void recordPrivate(String value) {
+            received.add(value);
+        }
+
+        public static String concatenate(String first, String second) {
+            return first + second;
+        }
+    }
+}
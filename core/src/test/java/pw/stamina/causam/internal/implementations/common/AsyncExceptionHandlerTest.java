@@ -0,0 +1,101 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.After;
+import org.junit.Test;
+import pw.stamina.causam.api.exception.ExceptionContext;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncExceptionHandlerTest {
+
+    private static final long PERIOD_MILLIS = 100;
+
+    private final List<ExceptionContext<?>> reports = new CopyOnWriteArrayList<>();
+
+    private final AsyncExceptionHandler handler = new AsyncExceptionHandler(64, 5, PERIOD_MILLIS, TimeUnit.MILLISECONDS,
+            new BasicConcurrentDispatcher.DispatchThreadFactory("exception-handling"), reports::add);
+
+    @After
+    public void shutDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    public void doesNotInspectStackTracesOnTheDispatchingThread() throws InterruptedException {
+        final Thread dispatchingThread = Thread.currentThread();
+        final List<Thread> inspectingThreads = new CopyOnWriteArrayList<>();
+        handler.handleException(new ExceptionContext<>(new IllegalStateException() {
+            @Override
+            public StackTraceElement[] getStackTrace() {
+                inspectingThreads.add(Thread.currentThread());
+                return super.getStackTrace();
+            }
+        }, "event", null));
+
+        awaitSummaries();
+        assertEquals(1, reports.size());
+        assertFalse(inspectingThreads.isEmpty());
+        assertFalse(inspectingThreads.contains(dispatchingThread));
+    }
+
+    @Test
+    public void holdsBackRepeatedStackTracesUntilTheSummary() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            handler.handleException(new ExceptionContext<>(new IllegalStateException(), "event", null));
+        }
+
+        awaitSummaries();
+        assertTrue("reported " + reports.size() + " times", reports.size() <= 3);
+        assertEquals(10, totalOccurrences());
+    }
+
+    @Test
+    public void reportsDistinctStackTracesSeparately() throws InterruptedException {
+        handler.handleException(new ExceptionContext<>(firstFailure(), "event", null));
+        handler.handleException(new ExceptionContext<>(secondFailure(), "event", null));
+
+        awaitSummaries();
+        assertEquals(2, reports.size());
+        assertEquals(2, totalOccurrences());
+    }
+
+    private static IllegalStateException firstFailure() {
+        return new IllegalStateException();
+    }
+
+    private static IllegalStateException secondFailure() {
+        return new IllegalStateException();
+    }
+
+    private long totalOccurrences() {
+        return reports.stream().mapToLong(ExceptionContext::getOccurrences).sum();
+    }
+
+    private static void awaitSummaries() throws InterruptedException {
+        Thread.sleep(4 * PERIOD_MILLIS);
+    }
+}
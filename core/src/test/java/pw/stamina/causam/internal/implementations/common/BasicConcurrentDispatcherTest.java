@@ -0,0 +1,139 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.After;
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BasicConcurrentDispatcherTest {
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private final BasicConcurrentDispatcher<Object, String> dispatcher = new BasicConcurrentDispatcher<>(4);
+
+    @After
+    public void shutDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void listenersOfOneTierRunInParallel() {
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final RecordingListener<String>[] tier = listenersAwaiting(allStarted, threads, "a", "b", "c");
+
+        dispatcher.dispatch("event", Arrays.asList(tier), Collections.emptyList());
+
+        assertEquals(3, log.size());
+        assertEquals(3, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void tiersRunInPriorityOrder() {
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("first1", log).withPriority(Order.FIRST),
+                new RecordingListener<String>("first2", log).withPriority(Order.FIRST),
+                new RecordingListener<String>("default1", log),
+                new RecordingListener<String>("default2", log),
+                new RecordingListener<String>("last", log).withPriority(Order.LAST));
+
+        dispatcher.dispatch("e", listeners, Collections.emptyList());
+
+        assertEquals(5, log.size());
+        assertTrue(log.subList(0, 2).containsAll(Arrays.asList("first1:e", "first2:e")));
+        assertTrue(log.subList(2, 4).containsAll(Arrays.asList("default1:e", "default2:e")));
+        assertEquals("last:e", log.get(4));
+    }
+
+    @Test
+    public void synchronousDispatchUsesTheCallingThreadAfterShutdown() {
+        dispatcher.shutdown();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("a", log).onInvoke(event -> threads.add(Thread.currentThread())),
+                new RecordingListener<String>("b", log).onInvoke(event -> threads.add(Thread.currentThread())));
+
+        dispatcher.dispatch("event", listeners, Collections.emptyList());
+
+        assertEquals(2, log.size());
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void asynchronousDispatchAfterShutdownFailsTheFuture() throws InterruptedException {
+        dispatcher.shutdown();
+        final CompletableFuture<Void> future = dispatcher.dispatchAsync("event",
+                Collections.singletonList(new RecordingListener<>("a", log)), Collections.emptyList());
+
+        try {
+            future.get();
+            fail("the dispatch should have been rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void workerThreadsAreNamedAfterTheDispatcher() throws Exception {
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        dispatcher.dispatchAsync("event", Collections.singletonList(
+                new RecordingListener<String>("a", log).onInvoke(event -> threadNames.add(Thread.currentThread().getName()))),
+                Collections.emptyList()).get();
+
+        assertEquals(1, threadNames.size());
+        assertTrue(threadNames.iterator().next().startsWith("causam-concurrent-dispatch-"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RecordingListener<String>[] listenersAwaiting(CountDownLatch allStarted, Set<Thread> threads, String... names) {
+        final RecordingListener<String>[] listeners = new RecordingListener[names.length];
+        for (int i = 0; i < names.length; i++) {
+            listeners[i] = new RecordingListener<String>(names[i], log).onInvoke(event -> {
+                threads.add(Thread.currentThread());
+                allStarted.countDown();
+                try {
+                    if (!allStarted.await(5, TimeUnit.SECONDS)) throw new AssertionError("listeners did not run in parallel");
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        return listeners;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.StoppableEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BasicDispatcherTest {
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger evaluations = new AtomicInteger();
+
+    private final Predicate<String> shared = event -> {
+        evaluations.incrementAndGet();
+        return event.startsWith("a");
+    };
+
+    @Test
+    public void sharedFilterIsEvaluatedOncePerEventAcrossOtherListeners() {
+        final BasicDispatcher<Object, String> dispatcher = new BasicDispatcher<>();
+        final Listener<Object, String>[] listeners = listeners(
+                new RecordingListener<String>("first", log).withFilter(shared),
+                new RecordingListener<String>("unfiltered", log),
+                new RecordingListener<String>("other", log).withFilter(event -> true),
+                new RecordingListener<String>("second", log).withFilter(shared));
+
+        dispatcher.dispatch("apple", listeners, Collections.emptyList());
+        dispatcher.dispatch("banana", listeners, Collections.emptyList());
+
+        assertEquals(2, evaluations.get());
+        assertEquals(Arrays.asList("first:apple", "unfiltered:apple", "other:apple", "second:apple",
+                "unfiltered:banana", "other:banana"), log);
+    }
+
+    @Test
+    public void sharedFilterIsEvaluatedOncePerEventAcrossManyListeners() {
+        final BasicDispatcher<Object, String> dispatcher = new BasicDispatcher<>();
+        final List<Listener<Object, String>> listeners = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            final Predicate<String> own = event -> true;
+            listeners.add(new RecordingListener<String>("listener" + i, log).withFilter(i % 3 == 0 ? shared : own));
+        }
+
+        dispatcher.dispatch("apple", listeners, Collections.emptyList());
+        dispatcher.dispatch("banana", listeners, Collections.emptyList());
+
+        assertEquals(2, evaluations.get());
+        assertEquals(150 + 100, log.size());
+    }
+
+    @Test
+    public void sharedFilterIsEvaluatedOncePerEventOfABatch() {
+        final BasicDispatcher<Object, String> dispatcher = new BasicDispatcher<>();
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("first", log).withFilter(shared),
+                new RecordingListener<String>("second", log).withFilter(shared),
+                new RecordingListener<String>("third", log).withFilter(shared));
+
+        dispatcher.dispatchAll(Arrays.asList("apple", "banana", "avocado"), listeners, Collections.emptyList());
+
+        assertEquals(3, evaluations.get());
+        assertEquals(Arrays.asList("first:apple", "first:avocado", "second:apple", "second:avocado",
+                "third:apple", "third:avocado"), log);
+    }
+
+    @Test
+    public void concurrentDispatcherEvaluatesSharedFiltersOncePerEvent() {
+        final BasicConcurrentDispatcher<Object, String> dispatcher = new BasicConcurrentDispatcher<>(4);
+        try {
+            final List<Listener<Object, String>> listeners = Arrays.asList(
+                    new RecordingListener<String>("first1", log).withPriority(Order.FIRST).withFilter(shared),
+                    new RecordingListener<String>("first2", log).withPriority(Order.FIRST).withFilter(shared),
+                    new RecordingListener<String>("default", log).withFilter(shared),
+                    new RecordingListener<String>("last", log).withPriority(Order.LAST).withFilter(shared));
+
+            dispatcher.dispatchAll(Arrays.asList("apple", "banana"), listeners, Collections.emptyList());
+
+            assertEquals(2, evaluations.get());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void monitorDispatcherEvaluatesSharedFiltersOncePerEvent() throws InterruptedException {
+        final MonitorDispatcher<Object, String> dispatcher = new MonitorDispatcher<>(2);
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("pre1", log).withPriority(Order.PRE).withFilter(shared),
+                new RecordingListener<String>("pre2", log).withPriority(Order.PRE).withFilter(shared),
+                new RecordingListener<String>("default", log).withFilter(shared),
+                new RecordingListener<String>("post", log).withPriority(Order.POST).withFilter(shared)
+                        .onInvoke(event -> delivered.countDown()));
+
+        try {
+            dispatcher.dispatch("apple", listeners, Collections.emptyList());
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.shutdown();
+        }
+
+        assertEquals(1, evaluations.get());
+        assertEquals(4, log.size());
+    }
+
+    @Test
+    public void stoppedEventsSkipTheRemainingListenersExceptMonitors() {
+        final BasicDispatcher<Object, Halt> dispatcher = new BasicDispatcher<>();
+        final List<Listener<Object, Halt>> listeners = Arrays.asList(
+                new RecordingListener<Halt>("pre", log).withPriority(Order.PRE),
+                new RecordingListener<Halt>("first", log).withPriority(Order.FIRST).onInvoke(Halt::stop),
+                new RecordingListener<Halt>("default", log),
+                new RecordingListener<Halt>("post", log).withPriority(Order.POST));
+
+        dispatcher.dispatch(new Halt("a"), listeners, Collections.emptyList());
+
+        assertEquals(Arrays.asList("pre:a", "first:a", "post:a"), log);
+    }
+
+    @Test
+    public void stoppedEventsOfABatchOnlySkipTheirOwnListeners() {
+        final BasicDispatcher<Object, Halt> dispatcher = new BasicDispatcher<>();
+        final List<Listener<Object, Halt>> listeners = Arrays.asList(
+                new RecordingListener<Halt>("first", log).onInvoke(event -> {
+                    if (event.name.equals("a")) event.stop();
+                }),
+                new RecordingListener<Halt>("second", log),
+                new RecordingListener<Halt>("post", log).withPriority(Order.POST));
+
+        dispatcher.dispatchAll(Arrays.asList(new Halt("a"), new Halt("b")), listeners, Collections.emptyList());
+
+        assertEquals(Arrays.asList("first:a", "first:b", "second:b", "post:a", "post:b"), log);
+    }
+
+    @Test
+    public void concurrentDispatcherSkipsLaterTiersOfStoppedEvents() {
+        final BasicConcurrentDispatcher<Object, Halt> dispatcher = new BasicConcurrentDispatcher<>(4);
+        try {
+            final List<Listener<Object, Halt>> listeners = Arrays.asList(
+                    new RecordingListener<Halt>("first", log).withPriority(Order.FIRST).onInvoke(Halt::stop),
+                    new RecordingListener<Halt>("default1", log),
+                    new RecordingListener<Halt>("default2", log),
+                    new RecordingListener<Halt>("post", log).withPriority(Order.POST));
+
+            dispatcher.dispatch(new Halt("a"), listeners, Collections.emptyList());
+
+            assertEquals(Arrays.asList("first:a", "post:a"), log);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @SafeVarargs
+    private static Listener<Object, String>[] listeners(Listener<Object, String>... listeners) {
+        return listeners;
+    }
+
+    static final class Halt implements StoppableEvent {
+        final String name;
+
+        private volatile boolean stopped;
+
+        Halt(String name) {
+            this.name = name;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
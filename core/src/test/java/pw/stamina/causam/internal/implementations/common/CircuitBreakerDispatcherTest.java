@@ -0,0 +1,129 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.dispatch.Dispatcher;
+import pw.stamina.causam.api.exception.CircuitBreakerException;
+import pw.stamina.causam.api.exception.CircuitBreakerException.State;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+import pw.stamina.causam.internal.implementations.metrics.HistogramDispatchMetrics;
+import pw.stamina.causam.internal.implementations.metrics.InstrumentedDispatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class CircuitBreakerDispatcherTest {
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private final List<State> transitions = new CopyOnWriteArrayList<>();
+
+    private final List<ExceptionHandler> exceptionHandlers = Collections.singletonList(context -> {
+        if (context.getCause() instanceof CircuitBreakerException) {
+            transitions.add(((CircuitBreakerException) context.getCause()).getState());
+        }
+    });
+
+    private volatile boolean failing = true;
+
+    private final RecordingListener<String> listener = new RecordingListener<String>("listener", log).onInvoke(event -> {
+        if (failing) throw new IllegalStateException(event);
+    });
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        final CircuitBreakerDispatcher<Object, String> breaker = new CircuitBreakerDispatcher<>(new BasicDispatcher<>(), 3, 1, TimeUnit.MINUTES);
+
+        dispatch(breaker, listeners(listener), 10);
+
+        assertEquals(3, log.size());
+        assertEquals(State.OPEN, breaker.getState(listener));
+        assertEquals(Collections.singletonList(State.OPEN), transitions);
+    }
+
+    @Test
+    public void closesOnceAProbeSucceeds() throws InterruptedException {
+        final CircuitBreakerDispatcher<Object, String> breaker = new CircuitBreakerDispatcher<>(new BasicDispatcher<>(), 3, 50, TimeUnit.MILLISECONDS);
+        final Listener<Object, String>[] listeners = listeners(listener);
+        dispatch(breaker, listeners, 3);
+
+        Thread.sleep(100);
+        dispatch(breaker, listeners, 1);
+        assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.OPEN), transitions);
+        assertEquals(4, log.size());
+
+        failing = false;
+        Thread.sleep(100);
+        dispatch(breaker, listeners, 3);
+        assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.OPEN, State.HALF_OPEN, State.CLOSED), transitions);
+        assertEquals(State.CLOSED, breaker.getState(listener));
+        assertEquals(7, log.size());
+    }
+
+    @Test
+    public void keepsBreakersOfListenersWrappedAnew() {
+        final CircuitBreakerDispatcher<Object, String> breaker = new CircuitBreakerDispatcher<>(new BasicDispatcher<>(), 3, 1, TimeUnit.MINUTES);
+        final Dispatcher<Object, String> instrumented = new InstrumentedDispatcher<>(breaker, new HistogramDispatchMetrics());
+
+        dispatch(instrumented, listeners(listener), 5);
+        dispatch(instrumented, listeners(listener), 5);    //a registration elsewhere replaces the listener array
+
+        assertEquals(3, log.size());
+        assertEquals(State.OPEN, breaker.getState(listener));
+    }
+
+    @Test
+    public void keepsBreakersAcrossAsynchronousDispatches() {
+        final CircuitBreakerDispatcher<Object, String> breaker = new CircuitBreakerDispatcher<>(new BasicDispatcher<>(), 3, 1, TimeUnit.MINUTES);
+        final WatchdogDispatcher<Object, String> watchdog = new WatchdogDispatcher<>(breaker, 1, TimeUnit.MINUTES);
+        try {
+            final List<Listener<Object, String>> listeners = new ArrayList<>(Arrays.asList(listeners(listener)));
+            for (int i = 0; i < 15; i++) {
+                watchdog.dispatchAsync("event" + i, listeners, exceptionHandlers, Runnable::run)
+                        .handle((result, failure) -> null)    //failures of the listener fail the future
+                        .join();
+            }
+        } finally {
+            watchdog.shutdown();
+        }
+
+        assertEquals(3, log.size());
+        assertEquals(State.OPEN, breaker.getState(listener));
+    }
+
+    private void dispatch(Dispatcher<Object, String> dispatcher, Listener<Object, String>[] listeners, int events) {
+        for (int i = 0; i < events; i++) {
+            dispatcher.dispatch("event" + i, listeners, exceptionHandlers);
+        }
+    }
+
+    @SafeVarargs
+    private static Listener<Object, String>[] listeners(Listener<Object, String>... listeners) {
+        return listeners;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.After;
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MonitorDispatcherTest {
+
+    private final List<String> log = new CopyOnWriteArrayList<>();
+
+    private final MonitorDispatcher<Object, String> dispatcher = new MonitorDispatcher<>(4);
+
+    @After
+    public void shutDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void trailingMonitorsWaitForLeadingMonitorsWithoutMutatingListeners() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("pre", log).withPriority(Order.PRE).onInvoke(event -> {
+                    sleep(100);
+                    log.add("pre:done");
+                }),
+                new RecordingListener<String>("post", log).withPriority(Order.POST).onInvoke(event -> delivered.countDown()));
+
+        dispatcher.dispatch("e", listeners, Collections.emptyList());
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("pre:e", "pre:done", "post:e"), log);
+    }
+
+    @Test
+    public void trailingMonitorsObserveEventsInDispatchOrder() throws InterruptedException {
+        final int events = 100;
+        final CountDownLatch delivered = new CountDownLatch(events);
+        final List<Listener<Object, String>> listeners = Arrays.asList(
+                new RecordingListener<String>("default", new ArrayList<>()),
+                new RecordingListener<String>("post", log).withPriority(Order.POST)
+                        .withFilter(event -> {
+                            if (event.equals("0")) sleep(50);   //holds up the first event before it is logged
+                            return true;
+                        })
+                        .onInvoke(event -> delivered.countDown()));
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            dispatcher.dispatch(String.valueOf(i), listeners, Collections.emptyList());
+            expected.add("post:" + i);
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(expected, log);
+    }
+
+    @Test
+    public void trailingMonitorsMayDispatchEvents() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<Listener<Object, String>> listeners = new ArrayList<>();
+        listeners.add(new RecordingListener<String>("post", log).withPriority(Order.POST).onInvoke(event -> {
+            if (event.equals("outer")) {
+                dispatcher.dispatch("inner", listeners, Collections.emptyList());
+            } else {
+                delivered.countDown();
+            }
+        }));
+
+        dispatcher.dispatch("outer", listeners, Collections.emptyList());
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("post:outer", "post:inner"), log);
+    }
+
+    @Test
+    public void trailingMonitorsRunOnTheDispatchingThreadAfterShutdown() {
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final List<Listener<Object, String>> listeners = Collections.singletonList(
+                new RecordingListener<String>("post", log).withPriority(Order.POST).onInvoke(event -> threads.add(Thread.currentThread())));
+
+        dispatcher.shutdown();
+        dispatcher.dispatch("e", listeners, Collections.emptyList());
+
+        assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.Test;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.api.exception.ExceptionHandler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RingBufferDispatcherTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    private final Iterable<Listener<Object, String>> listeners = Collections.singletonList(new RecordingListener(delivered));
+
+    private final Iterable<ExceptionHandler> exceptionHandlers = Collections.emptyList();
+
+    @Test(timeout = 10_000)
+    public void deliversPublishedEventsBeforeShuttingDown() throws InterruptedException {
+        final RingBufferDispatcher<Object, String> dispatcher = new RingBufferDispatcher<>(4, RingBufferDispatcher.WaitStrategy.PARK);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch("event" + i, listeners, exceptionHandlers);
+        }
+        dispatcher.shutdown();
+        while (delivered.size() < 10) Thread.sleep(1);
+        assertEquals("event9", delivered.get(9));
+    }
+
+    @Test(timeout = 10_000)
+    public void rejectsEventsAfterShutdownWithoutBlocking() throws InterruptedException {
+        final AtomicReference<Thread> consumer = new AtomicReference<>();
+        final RingBufferDispatcher<Object, String> dispatcher = new RingBufferDispatcher<>(4, RingBufferDispatcher.WaitStrategy.PARK, r -> {
+            consumer.set(new Thread(r));
+            return consumer.get();
+        }, new BasicDispatcher<>());
+        dispatcher.shutdown();
+        consumer.get().join();    //nothing drains the ring from here on
+        for (int i = 0; i < dispatcher.getBufferSize() * 4; i++) {    //well past the point where abandoned claims fill the ring
+            try {
+                dispatcher.dispatch("event" + i, listeners, exceptionHandlers);
+                fail("dispatch " + i + " was accepted after shutdown");
+            } catch (IllegalStateException expected) {}
+        }
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test(timeout = 10_000)
+    public void releasesProducersWaitingForSpaceWhenShutDown() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Listener<Object, String> blocking = new RecordingListener(delivered) {
+            @Override
+            public void invoke(String event) throws Throwable {
+                blocked.countDown();
+                release.await();
+            }
+        };
+        final RingBufferDispatcher<Object, String> dispatcher = new RingBufferDispatcher<>(2, RingBufferDispatcher.WaitStrategy.PARK);
+        dispatcher.dispatch("blocking", Collections.singletonList(blocking), exceptionHandlers);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch("first", listeners, exceptionHandlers);
+        dispatcher.dispatch("second", listeners, exceptionHandlers);    //the ring is now full
+
+        final Thread producer = new Thread(() -> {
+            try {
+                dispatcher.dispatch("third", listeners, exceptionHandlers);
+            } catch (IllegalStateException ignored) {}
+        });
+        producer.start();
+        dispatcher.shutdown();
+        release.countDown();
+        producer.join();
+        while (delivered.size() < 2) Thread.sleep(1);
+        assertEquals("first", delivered.get(0));
+        assertEquals("second", delivered.get(1));
+    }
+
+    @Test(timeout = 10_000)
+    public void deliversEventsDispatchedByListenersInline() throws InterruptedException {
+        final RingBufferDispatcher<Object, String> dispatcher = new RingBufferDispatcher<>(4, RingBufferDispatcher.WaitStrategy.PARK);
+        final Listener<Object, String> nesting = new RecordingListener(delivered) {
+            @Override
+            public void invoke(String event) throws Throwable {
+                for (int i = 0; i < 8; i++) {    //twice the size of the ring, so it fills up from the consumer thread
+                    dispatcher.dispatch(event + i, listeners, exceptionHandlers);
+                }
+            }
+        };
+        dispatcher.dispatch("inner", Collections.singletonList(nesting), exceptionHandlers);
+        while (delivered.size() < 8) Thread.sleep(1);
+        dispatcher.shutdown();
+        assertEquals("inner7", delivered.get(7));
+    }
+
+    @Test(timeout = 10_000)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void handsListenerArraysToTheDelegateUnwrapped() throws InterruptedException {
+        final List<String> paths = new CopyOnWriteArrayList<>();
+        final RingBufferDispatcher<Object, String> dispatcher = new RingBufferDispatcher<>(4, RingBufferDispatcher.WaitStrategy.PARK, Thread::new,
+                new BasicDispatcher<Object, String>() {
+                    @Override
+                    public void dispatch(String event, Iterable<Listener<Object, String>> listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+                        paths.add("iterable");
+                    }
+
+                    @Override
+                    public void dispatch(String event, Listener<Object, String>[] listeners, Iterable<ExceptionHandler> exceptionHandlers) {
+                        paths.add("array");
+                    }
+                });
+        dispatcher.dispatch("event", new Listener[]{new RecordingListener(delivered)}, exceptionHandlers);
+        dispatcher.dispatch("event", listeners, exceptionHandlers);
+        dispatcher.shutdown();
+        while (paths.size() < 2) Thread.sleep(1);
+        assertEquals("[array, iterable]", paths.toString());
+    }
+
+    private static class RecordingListener implements Listener<Object, String> {
+        private final List<String> delivered;
+
+        RecordingListener(List<String> delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void invoke(String event) throws Throwable {
+            delivered.add(event);
+        }
+
+        @Override
+        public Object getListenerObject() {
+            return this;
+        }
+
+        @Override
+        public Class<? extends String> getEventType() {
+            return String.class;
+        }
+    }
+}
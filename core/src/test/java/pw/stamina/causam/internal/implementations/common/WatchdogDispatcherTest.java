@@ -0,0 +1,79 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.common;
+
+import org.junit.Test;
+import pw.stamina.causam.Causam;
+import pw.stamina.causam.api.EventBus;
+import pw.stamina.causam.api.configuration.ConfigurationBuilder;
+import pw.stamina.causam.api.exception.SlowListenerException;
+import pw.stamina.causam.internal.implementations.annotated.Reactive;
+import pw.stamina.causam.internal.implementations.annotated.method.AnnotatedMethodListenerRegistry;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class WatchdogDispatcherTest {
+
+    @Test
+    public void reportsTheOuterListenerOnceANestedDispatchReturns() throws InterruptedException {
+        final List<SlowListenerException> overruns = new CopyOnWriteArrayList<>();
+        final WatchdogDispatcher<Method, Object> watchdog = new WatchdogDispatcher<>(new BasicDispatcher<>(), 50, TimeUnit.MILLISECONDS);
+        try {
+            final EventBus<Object, Object> bus = Causam.makeBus(Object.class, Object.class, (c, e) -> ConfigurationBuilder.from(c, Method.class, e)
+                    .usingRegistry(new AnnotatedMethodListenerRegistry<>(e, false))
+                    .usingDispatcher(watchdog)
+                    .withExceptionHandling(context -> {
+                        if (context.getCause() instanceof SlowListenerException) {
+                            overruns.add((SlowListenerException) context.getCause());
+                        }
+                    }));
+            bus.register(new NestingContainer(bus));
+            bus.dispatch("outer");
+        } finally {
+            watchdog.shutdown();
+        }
+
+        assertEquals(1, overruns.size());
+        assertEquals(String.class, overruns.get(0).getEventType());
+    }
+
+    public static class NestingContainer {
+        private final EventBus<Object, Object> bus;
+
+        NestingContainer(EventBus<Object, Object> bus) {
+            this.bus = bus;
+        }
+
+        @Reactive
+        public void onOuter(String event) throws InterruptedException {
+            for (int i = 0; i < 20; i++) {
+                bus.dispatch(i);
+                Thread.sleep(10);
+            }
+        }
+
+        @Reactive
+        public void onInner(Integer event) {}
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.internal.implementations.metrics;
+
+import org.junit.Test;
+import pw.stamina.causam.RecordingListener;
+import pw.stamina.causam.api.Listener;
+import pw.stamina.causam.internal.implementations.common.BasicDispatcher;
+import pw.stamina.causam.internal.implementations.common.WatchdogDispatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramDispatchMetricsTest {
+
+    @Test
+    public void recordsListenersWrappedAnewUnderOneEntry() {
+        final HistogramDispatchMetrics metrics = new HistogramDispatchMetrics();
+        final WatchdogDispatcher<Object, String> watchdog = new WatchdogDispatcher<>(new InstrumentedDispatcher<>(new BasicDispatcher<>(), metrics), 1, TimeUnit.MINUTES);
+        final Listener<Object, String> listener = new RecordingListener<>("listener", new ArrayList<>());
+        try {
+            watchdog.dispatch("first", listeners(listener), Collections.emptyList());
+            watchdog.dispatch("second", listeners(listener), Collections.emptyList());    //a registration elsewhere replaces the listener array
+        } finally {
+            watchdog.shutdown();
+        }
+
+        final List<ListenerStatistics> statistics = metrics.getListenerStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals(2, statistics.get(0).getInvocations());
+    }
+
+    @SafeVarargs
+    private static Listener<Object, String>[] listeners(Listener<Object, String>... listeners) {
+        return listeners;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pw.stamina.causam.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor generating listener invokers for {@code Reactive} methods at compile time
+ * <p>
+ * For every class declaring reactive methods, a {@code GeneratedInvokers} implementation is written to the same package.
+ * It calls each method directly, so that registering an instance of the class needs neither privileged method handle
+ * lookups nor runtime lambda generation. Private methods, and methods of classes which cannot be referenced from their own
+ * package or take an event type which cannot be, are skipped and left to the runtime fallback.
+ *
+ * @author Foundry
+ */
+@SupportedAnnotationTypes(ReactiveProcessor.REACTIVE_ANNOTATION)
+public class ReactiveProcessor extends AbstractProcessor {
+
+    static final String REACTIVE_ANNOTATION = "pw.stamina.causam.internal.implementations.annotated.Reactive";
+
+    private static final String GENERATED_INVOKERS = "pw.stamina.causam.internal.implementations.annotated.method.GeneratedInvokers";
+
+    private static final String METHOD_INVOKER = "pw.stamina.causam.internal.implementations.annotated.method.MethodInvoker";
+
+    private static final String CLASS_SUFFIX = "$$CausamInvokers";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final Map<TypeElement, List<ExecutableElement>> containers = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) continue;  //fields and types are not bound by the method registry
+                final ExecutableElement method = (ExecutableElement) element;
+                final TypeElement container = (TypeElement) method.getEnclosingElement();
+                if (isInvokable(method) && isReferenceable(container) && isReferenceable(method.getParameters().get(0).asType())) {
+                    containers.computeIfAbsent(container, c -> new ArrayList<>()).add(method);
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : containers.entrySet()) {
+            try {
+                writeInvokers(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not generate listener invokers: " + e, entry.getKey());
+            }
+        }
+        return false;
+    }
+
+    private void writeInvokers(TypeElement container, List<ExecutableElement> methods) throws IOException {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(container).getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(container).toString();
+        final String generatedName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + CLASS_SUFFIX;
+        final String containerType = erasure(container.asType());
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? generatedName : packageName + "." + generatedName, container).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Listener invokers for {@link " + containerType + "}, generated by the Causam annotation processor; do not edit");
+            out.println(" */");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"cast\"})");    //the event cast is redundant for Object parameters
+            out.println("public final class " + generatedName + " implements " + GENERATED_INVOKERS + " {");
+            out.println("    @Override");
+            out.println("    public " + METHOD_INVOKER + " getInvoker(String methodName, Class<?> eventType) {");
+            for (ExecutableElement method : methods) {
+                final String methodName = method.getSimpleName().toString();
+                final String eventType = erasure(method.getParameters().get(0).asType());
+                final String receiver = method.getModifiers().contains(Modifier.STATIC) ? containerType : "((" + containerType + ") container)";
+                out.println("        if (\"" + methodName + "\".equals(methodName) && eventType == " + eventType + ".class) {");
+                out.println("            return (container, event) -> " + receiver + "." + methodName + "((" + eventType + ") event);");
+                out.println("        }");
+            }
+            out.println("        return null;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean isInvokable(ExecutableElement method) {
+        return method.getParameters().size() == 1
+                && !method.getParameters().get(0).asType().getKind().isPrimitive()
+                && !method.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    private boolean isReferenceable(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        while (erased.getKind() == TypeKind.ARRAY) {
+            erased = ((ArrayType) erased).getComponentType();
+        }
+        return erased.getKind() != TypeKind.DECLARED || isReferenceable((TypeElement) ((DeclaredType) erased).asElement());
+    }
+
+    private static boolean isReferenceable(TypeElement container) {
+        for (Element type = container; type instanceof TypeElement; type = type.getEnclosingElement()) {
+            final NestingKind nesting = ((TypeElement) type).getNestingKind();
+            if (type.getModifiers().contains(Modifier.PRIVATE) || (nesting != NestingKind.TOP_LEVEL && nesting != NestingKind.MEMBER)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
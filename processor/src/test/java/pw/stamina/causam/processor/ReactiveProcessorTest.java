@@ -0,0 +1,168 @@
+/*
+ * Causam - A maximally decoupled event system for Java
+ * Copyright (C) 2016 Foundry
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pw.stamina.causam.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pw.stamina.causam.internal.implementations.annotated.method.GeneratedInvokers;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReactiveProcessorTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void invokesInstanceAndStaticMethodsDirectly() throws Throwable {
+        final ClassLoader loader = compile("sample.Listeners",
+                "package sample;",
+                "import pw.stamina.causam.internal.implementations.annotated.Reactive;",
+                "public class Listeners {",
+                "    public static final java.util.List<String> received = new java.util.ArrayList<>();",
+                "    @Reactive public void onString(String event) { received.add(\"instance:\" + event); }",
+                "    @Reactive public static void onInteger(Integer event) { received.add(\"static:\" + event); }",
+                "    @Reactive public void onObject(Object event) { received.add(\"object:\" + event); }",
+                "}");
+        final Class<?> container = loader.loadClass("sample.Listeners");
+        final GeneratedInvokers invokers = invokersOf(loader, "sample.Listeners");
+        final Object instance = container.getConstructor().newInstance();
+
+        invokers.getInvoker("onString", String.class).invoke(instance, "a");
+        invokers.getInvoker("onInteger", Integer.class).invoke(null, 1);
+        invokers.getInvoker("onObject", Object.class).invoke(instance, "b");
+
+        assertEquals(Arrays.asList("instance:a", "static:1", "object:b"), container.getField("received").get(null));
+        assertNull(invokers.getInvoker("onString", Object.class));
+    }
+
+    @Test
+    public void bindsMethodsOfGenericContainersByErasure() throws Throwable {
+        final ClassLoader loader = compile("sample.Box",
+                "package sample;",
+                "import pw.stamina.causam.internal.implementations.annotated.Reactive;",
+                "public class Box<T extends CharSequence> {",
+                "    public T last;",
+                "    @Reactive public void onValue(T event) { last = event; }",
+                "    @Reactive public void onValues(java.util.List<T> event) { last = event.get(0); }",
+                "}");
+        final Object box = loader.loadClass("sample.Box").getConstructor().newInstance();
+        final GeneratedInvokers invokers = invokersOf(loader, "sample.Box");
+
+        invokers.getInvoker("onValue", CharSequence.class).invoke(box, "single");
+        assertEquals("single", box.getClass().getField("last").get(box));
+        invokers.getInvoker("onValues", List.class).invoke(box, Collections.singletonList("listed"));
+        assertEquals("listed", box.getClass().getField("last").get(box));
+    }
+
+    @Test
+    public void generatesInvokersForNestedContainers() throws Throwable {
+        final ClassLoader loader = compile("sample.Outer",
+                "package sample;",
+                "import pw.stamina.causam.internal.implementations.annotated.Reactive;",
+                "public class Outer {",
+                "    public static class Nested {",
+                "        public String received;",
+                "        @Reactive void onString(String event) { received = event; }",
+                "    }",
+                "    public class Inner {",
+                "        @Reactive public void onString(String event) {}",
+                "    }",
+                "}");
+        final Object nested = loader.loadClass("sample.Outer$Nested").getConstructor().newInstance();
+
+        invokersOf(loader, "sample.Outer$Nested").getInvoker("onString", String.class).invoke(nested, "event");
+
+        assertEquals("event", nested.getClass().getField("received").get(nested));
+        assertNotNull(invokersOf(loader, "sample.Outer$Inner").getInvoker("onString", String.class));
+    }
+
+    @Test
+    public void leavesPrivateMethodsAndContainersToTheRuntimeFallback() throws Throwable {
+        final ClassLoader loader = compile("sample.Mixed",
+                "package sample;",
+                "import pw.stamina.causam.internal.implementations.annotated.Reactive;",
+                "public class Mixed {",
+                "    @Reactive private void onHidden(String event) {}",
+                "    @Reactive public void onShown(Integer event) {}",
+                "    private static class Hidden {",
+                "        @Reactive public void onString(String event) {}",
+                "    }",
+                "}");
+        final GeneratedInvokers invokers = invokersOf(loader, "sample.Mixed");
+
+        assertNull(invokers.getInvoker("onHidden", String.class));
+        assertNotNull(invokers.getInvoker("onShown", Integer.class));
+        assertFalse(new File(folder.getRoot(), "classes/sample/Mixed$Hidden" + GeneratedInvokers.CLASS_SUFFIX + ".class").exists());
+    }
+
+    /**
+     * Compiles a single source file with the processor, failing on any error or warning, including those of the
+     * generated sources
+     */
+    private ClassLoader compile(String className, String... lines) throws IOException {
+        final File sources = folder.newFolder("sources");
+        final File classes = folder.newFolder("classes");
+        final File source = new File(sources, className.replace('.', File.separatorChar) + ".java");
+        assertTrue(source.getParentFile().mkdirs());
+        Files.write(source.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            final List<String> options = Arrays.asList("-Xlint:all,-processing", "-classpath", System.getProperty("java.class.path"),
+                    "-d", classes.getPath(), "-s", sources.getPath());
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjects(source));
+            task.setProcessors(Collections.singletonList(new ReactiveProcessor()));
+            final boolean compiled = task.call();
+
+            final List<Diagnostic<? extends JavaFileObject>> reported = new ArrayList<>(diagnostics.getDiagnostics());
+            assertTrue(reported.stream().map(Object::toString).collect(Collectors.joining("\n")), compiled && reported.isEmpty());
+        }
+        return new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    private static GeneratedInvokers invokersOf(ClassLoader loader, String className) throws ReflectiveOperationException {
+        return (GeneratedInvokers) loader.loadClass(className + GeneratedInvokers.CLASS_SUFFIX).getConstructor().newInstance();
+    }
+}